@@ -0,0 +1,8 @@
+package com.example.common.exceptions;
+
+public class DrugServiceUnavailableException extends RuntimeException {
+
+    public DrugServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.common.tracing;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes each finished span to the "tracing" logger at INFO, one line per
+ * span: trace/span/parent ids, kind, name, remote service, duration, tags
+ * and error. Shared by the services' TracingConfig (tracing.log.enabled).
+ */
+public final class LogSpanHandler extends SpanHandler {
+
+    private static final Logger log = LoggerFactory.getLogger("tracing");
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause != Cause.FINISHED || !log.isInfoEnabled()) return true;
+
+        StringBuilder line = new StringBuilder(128)
+                .append("trace=").append(context.traceIdString())
+                .append(" span=").append(context.spanIdString())
+                .append(" parent=").append(context.parentIdString())
+                .append(' ').append(span.kind() == null ? "LOCAL" : span.kind())
+                .append(' ').append(span.name());
+        if (span.remoteServiceName() != null) {
+            line.append(" -> ").append(span.remoteServiceName());
+        }
+        line.append(' ').append((span.finishTimestamp() - span.startTimestamp()) / 1000.0).append(" ms");
+        span.forEachTag((out, key, value) -> out.append(' ').append(key).append('=').append(value), line);
+        if (span.error() != null) {
+            line.append(" error=").append(span.error());
+        }
+        log.info(line.toString());
+        return true;
+    }
+}
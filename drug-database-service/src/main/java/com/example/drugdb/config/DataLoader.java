@@ -2,6 +2,7 @@ package com.example.drugdb.config;
 
 import com.example.drugdb.entity.Drug;
 import com.example.drugdb.repository.DrugRepository;
+import com.example.drugdb.service.CatalogueVersion;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Configuration;
 
@@ -13,9 +14,11 @@ import java.util.stream.Collectors;
 public class DataLoader implements CommandLineRunner {
 
     private final DrugRepository drugRepository;
+    private final CatalogueVersion catalogueVersion;
 
-    public DataLoader(DrugRepository drugRepository) {
+    public DataLoader(DrugRepository drugRepository, CatalogueVersion catalogueVersion) {
         this.drugRepository = drugRepository;
+        this.catalogueVersion = catalogueVersion;
     }
 
     @Override
@@ -40,7 +43,10 @@ public class DataLoader implements CommandLineRunner {
 
                 List<Drug> drugs = Arrays.asList(d1, d2, d3, d4, d5, d6, d7, d8, d9, d10);
 
+                long version = catalogueVersion.next();
+                drugs.forEach(drug -> drug.setVersion(version));
                 List<Drug> saved = drugRepository.saveAll(drugs);
+                catalogueVersion.changed();
                 System.out.println("Successfully inserted " + saved.size() + " sample drugs.");
                 System.out.println("Drug names: " + saved.stream().map(Drug::getName).collect(Collectors.joining(", ")));
             } else {
@@ -0,0 +1,23 @@
+package com.example.drugdb.config;
+
+import brave.handler.SpanHandler;
+import com.example.common.tracing.LogSpanHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tracing is Spring Cloud Sleuth with Brave: incoming requests join the
+ * caller's trace from its B3 headers, so drug lookups made on behalf of a
+ * prescription appear in its trace. Sampled spans are written to the
+ * "tracing" logger, one line per span.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(value = "tracing.log.enabled", matchIfMissing = true)
+    public SpanHandler logSpanHandler() {
+        return new LogSpanHandler();
+    }
+}
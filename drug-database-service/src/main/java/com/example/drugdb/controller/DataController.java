@@ -2,6 +2,9 @@ package com.example.drugdb.controller;
 
 import com.example.drugdb.entity.Drug;
 import com.example.drugdb.repository.DrugRepository;
+import com.example.drugdb.service.CatalogueVersion;
+import com.example.drugdb.service.DrugChangeNotifier;
+import com.example.drugdb.service.DrugSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -15,6 +18,15 @@ public class DataController {
     @Autowired
     private DrugRepository drugRepository;
 
+    @Autowired
+    private DrugChangeNotifier drugChangeNotifier;
+
+    @Autowired
+    private DrugSearchIndex drugSearchIndex;
+
+    @Autowired
+    private CatalogueVersion catalogueVersion;
+
     /**
      * Manually trigger data loading if database is empty
      */
@@ -39,7 +51,10 @@ public class DataController {
             Drug d10 = create("Omeprazole", "Antacid", 20, Arrays.asList("Constipation", "Gas"));
 
             List<Drug> drugs = Arrays.asList(d1, d2, d3, d4, d5, d6, d7, d8, d9, d10);
-            drugRepository.saveAll(drugs);
+            long version = catalogueVersion.next();
+            drugs.forEach(drug -> drug.setVersion(version));
+            drugSearchIndex.putAll(drugRepository.saveAll(drugs));
+            catalogueVersion.changed();
             
             return "Successfully loaded " + drugs.size() + " sample drugs.";
         } catch (Exception e) {
@@ -54,6 +69,9 @@ public class DataController {
     public String clearDatabase() {
         long count = drugRepository.count();
         drugRepository.deleteAll();
+        catalogueVersion.changed();
+        drugSearchIndex.rebuild();
+        drugChangeNotifier.catalogueChanged();
         return "Cleared " + count + " drugs from database.";
     }
 
@@ -1,11 +1,32 @@
 package com.example.drugdb.controller;
 
+import com.example.drugdb.dto.DrugMatch;
+import com.example.drugdb.dto.DrugPage;
+import com.example.drugdb.dto.DrugSummary;
+import com.example.drugdb.dto.ImportReport;
 import com.example.drugdb.entity.Drug;
 import com.example.drugdb.repository.DrugRepository;
+import com.example.drugdb.service.CatalogueVersion;
+import com.example.drugdb.service.DrugChangeNotifier;
+import com.example.drugdb.service.DrugExportService;
+import com.example.drugdb.service.DrugImportService;
+import com.example.drugdb.service.DrugSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/drugs")
@@ -14,29 +35,140 @@ public class DrugController {
     @Autowired
     private DrugRepository drugRepository;
 
+    @Autowired
+    private DrugChangeNotifier drugChangeNotifier;
+
+    @Autowired
+    private DrugExportService drugExportService;
+
+    @Autowired
+    private DrugImportService drugImportService;
+
+    @Autowired
+    private DrugSearchIndex drugSearchIndex;
+
+    @Autowired
+    private CatalogueVersion catalogueVersion;
+
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int MAX_SEARCH_RESULTS = 100;
+
     // CREATE - Single Drug
     @PostMapping
     public Drug addDrug(@RequestBody Drug drug) {
-        return drugRepository.save(drug);
+        drug.setVersion(catalogueVersion.next());
+        Drug saved = drugRepository.save(drug);
+        drugSearchIndex.put(saved);
+        catalogueVersion.changed();
+        drugChangeNotifier.drugChanged(saved.getId());
+        return saved;
     }
 
     // CREATE - BULK Insert (IMPORTANT)
     @PostMapping("/bulk")
     public List<Drug> addDrugsBulk(@RequestBody List<Drug> drugs) {
-        return drugRepository.saveAll(drugs);
+        long version = catalogueVersion.next();
+        drugs.forEach(drug -> drug.setVersion(version));
+        List<Drug> saved = drugRepository.saveAll(drugs);
+        drugSearchIndex.putAll(saved);
+        catalogueVersion.changed();
+        drugChangeNotifier.catalogueChanged();
+        return saved;
     }
 
-    // READ SINGLE
+    // IMPORT - large formularies, streamed and committed in chunks (JSON array or NDJSON body)
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public ResponseEntity<ImportReport> importDrugs(InputStream body,
+                                                    @RequestParam(required = false) Integer chunkSize) {
+        ImportReport report = drugImportService.importDrugs(body, chunkSize);
+        if (report.getImported() > 0) {
+            drugSearchIndex.rebuild();
+            drugChangeNotifier.catalogueChanged();
+        }
+        return report.getError() == null ? ResponseEntity.ok(report) : ResponseEntity.badRequest().body(report);
+    }
+
+    // READ SINGLE - ETag W/"<version>"; If-None-Match with it answers 304 until the drug changes
     @GetMapping("/{id}")
-    public Drug getDrug(@PathVariable Long id) {
-        return drugRepository.findById(id)
+    public ResponseEntity<Drug> getDrug(@PathVariable Long id,
+                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Drug drug = drugRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Drug not found with id: " + id));
+        if (drug.getVersion() == null) return ResponseEntity.ok(drug);
+        return conditional(etag(drug.getVersion()), ifNoneMatch, () -> drug);
     }
 
-    // READ ALL
+    // READ MANY - /drugs/batch?ids=1,2,3 or POST [1,2,3]; unknown ids are left out, results in id order
+    @GetMapping("/batch")
+    public ResponseEntity<List<Drug>> getDrugsByIds(@RequestParam("ids") Set<Long> ids) {
+        return findDrugs(ids);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<Drug>> postDrugsByIds(@RequestBody Set<Long> ids) {
+        return findDrugs(ids);
+    }
+
+    private ResponseEntity<List<Drug>> findDrugs(Set<Long> ids) {
+        ids.remove(null);
+        if (ids.size() > MAX_BATCH_SIZE) return ResponseEntity.badRequest().build();
+        if (ids.isEmpty()) return ResponseEntity.ok(Collections.emptyList());
+        return ResponseEntity.ok(drugRepository.findAllWithSideEffectsByIdIn(ids));
+    }
+
+    // SEARCH - by name from the in-memory index: /drugs/search?q=asprin&mode=auto&limit=10
+    // mode: auto (exact, then prefix, then typo-tolerant), exact, prefix or fuzzy
+    @GetMapping("/search")
+    public ResponseEntity<List<DrugMatch>> searchDrugs(@RequestParam("q") String query,
+                                                       @RequestParam(defaultValue = "auto") String mode,
+                                                       @RequestParam(defaultValue = "10") int limit) {
+        DrugSearchIndex.Mode searchMode;
+        try {
+            searchMode = DrugSearchIndex.Mode.valueOf(mode.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(drugSearchIndex.search(query, searchMode, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS))));
+    }
+
+    // RESOLVE - exact names to ids in one call: POST ["Aspirin", "warfarin"] -> {"Aspirin": 1, "warfarin": 2}
+    // names match ignoring case, accents and punctuation; unknown names are left out
+    @PostMapping("/resolve")
+    public ResponseEntity<Map<String, Long>> resolveNames(@RequestBody Set<String> names) {
+        names.remove(null);
+        if (names.size() > MAX_BATCH_SIZE) return ResponseEntity.badRequest().build();
+        return ResponseEntity.ok(drugSearchIndex.resolve(names));
+    }
+
+    // READ ALL - ETag W/"<catalogue version>"; a 304 skips the query entirely
     @GetMapping
-    public List<Drug> getAllDrugs() {
-        return drugRepository.findAll();
+    public ResponseEntity<List<Drug>> getAllDrugs(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return conditional(etag(catalogueVersion.current()), ifNoneMatch, drugRepository::findAllWithSideEffects);
+    }
+
+    // READ PAGE - keyset pagination: /drugs/page?after=<last id seen>&size=100&view=summary
+    @GetMapping("/page")
+    public DrugPage<?> getDrugPage(@RequestParam(defaultValue = "0") Long after,
+                                   @RequestParam(defaultValue = "100") int size,
+                                   @RequestParam(defaultValue = "full") String view) {
+        PageRequest limit = PageRequest.ofSize(Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        if ("summary".equalsIgnoreCase(view)) {
+            List<DrugSummary> items = drugRepository.findSummariesByIdGreaterThanOrderByIdAsc(after, limit);
+            Long next = items.size() < limit.getPageSize() ? null : items.get(items.size() - 1).getId();
+            return new DrugPage<>(items, next);
+        }
+        List<Drug> items = drugRepository.findByIdGreaterThanOrderByIdAsc(after, limit);
+        Long next = items.size() < limit.getPageSize() ? null : items.get(items.size() - 1).getId();
+        return new DrugPage<>(items, next);
+    }
+
+    // EXPORT - whole catalogue as NDJSON, streamed
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportDrugs() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(drugExportService::exportNdjson);
     }
 
     // UPDATE
@@ -47,7 +179,12 @@ public class DrugController {
             drug.setCategory(updatedDrug.getCategory());
             drug.setDosageMg(updatedDrug.getDosageMg());
             drug.setSideEffects(updatedDrug.getSideEffects());
-            return drugRepository.save(drug);
+            drug.setVersion(catalogueVersion.next());
+            Drug saved = drugRepository.save(drug);
+            drugSearchIndex.put(saved);
+            catalogueVersion.changed();
+            drugChangeNotifier.drugChanged(id);
+            return saved;
         }).orElseThrow(() -> new RuntimeException("Drug not found with id: " + id));
     }
 
@@ -58,6 +195,9 @@ public class DrugController {
             return "Drug not found with id: " + id;
         }
         drugRepository.deleteById(id);
+        drugSearchIndex.remove(id);
+        catalogueVersion.changed();
+        drugChangeNotifier.drugChanged(id);
         return "Deleted drug with id: " + id;
     }
 
@@ -66,4 +206,28 @@ public class DrugController {
     public Long getDrugCount() {
         return drugRepository.count();
     }
+
+    /**
+     * 304 with the tag if If-None-Match lists it (or is *), otherwise the body with the tag.
+     * Tags are weak: they stand for the drug data, not the bytes, which may be gzipped.
+     */
+    private static <T> ResponseEntity<T> conditional(String etag, String ifNoneMatch, Supplier<T> body) {
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                if (tag.equals("*") || weak(tag).equals(etag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+                }
+            }
+        }
+        return ResponseEntity.ok().eTag(etag).body(body.get());
+    }
+
+    private static String etag(long version) {
+        return "W/\"" + version + "\"";
+    }
+
+    private static String weak(String tag) {
+        return tag.startsWith("W/") ? tag : "W/" + tag;
+    }
 }
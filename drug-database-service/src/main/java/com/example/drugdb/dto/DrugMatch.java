@@ -0,0 +1,44 @@
+package com.example.drugdb.dto;
+
+/**
+ * One /drugs/search hit. distance is the number of typos corrected, 0 for
+ * exact and prefix matches.
+ */
+public class DrugMatch {
+
+    public enum Type { EXACT, PREFIX, FUZZY }
+
+    private final Long id;
+    private final String name;
+    private final String category;
+    private final Type match;
+    private final int distance;
+
+    public DrugMatch(Long id, String name, String category, Type match, int distance) {
+        this.id = id;
+        this.name = name;
+        this.category = category;
+        this.match = match;
+        this.distance = distance;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public Type getMatch() {
+        return match;
+    }
+
+    public int getDistance() {
+        return distance;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.drugdb.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. Pass nextCursor as "after" to get
+ * the following page; it is null on the last page.
+ */
+public class DrugPage<T> {
+
+    private final List<T> items;
+    private final Long nextCursor;
+
+    public DrugPage(List<T> items, Long nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+}
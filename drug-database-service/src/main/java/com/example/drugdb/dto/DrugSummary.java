@@ -0,0 +1,9 @@
+package com.example.drugdb.dto;
+
+/**
+ * Projection of Drug with just id and name; does not touch side effects.
+ */
+public interface DrugSummary {
+    Long getId();
+    String getName();
+}
@@ -0,0 +1,40 @@
+package com.example.drugdb.dto;
+
+/**
+ * Outcome of a bulk import. Chunks are committed independently, so when
+ * error is set the first {@code imported} drugs are already stored.
+ */
+public class ImportReport {
+
+    private final long imported;
+    private final int chunks;
+    private final long elapsedMs;
+    private final String error;
+
+    public ImportReport(long imported, int chunks, long elapsedMs, String error) {
+        this.imported = imported;
+        this.chunks = chunks;
+        this.elapsedMs = elapsedMs;
+        this.error = error;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public long getRowsPerSecond() {
+        return elapsedMs == 0 ? imported : imported * 1000 / elapsedMs;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.drugdb.entity;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
+import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
 import java.util.List;
@@ -11,7 +13,9 @@ import java.util.List;
 public class Drug {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence ids let Hibernate batch inserts; IDENTITY forces one INSERT per row
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "drug_seq")
+    @SequenceGenerator(name = "drug_seq", sequenceName = "drug_seq", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -22,5 +26,11 @@ public class Drug {
     @ElementCollection
     @CollectionTable(name = "drug_side_effects", joinColumns = @JoinColumn(name = "drug_id"))
     @Column(name = "side_effect")
+    @BatchSize(size = 100)
     private List<String> sideEffects;
+
+    // Catalogue version of the last write to this drug (see CatalogueVersion);
+    // set by the service, never by clients. The ETag of GET /drugs/{id}.
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
 }
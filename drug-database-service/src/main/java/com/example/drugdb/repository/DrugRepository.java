@@ -1,9 +1,55 @@
 package com.example.drugdb.repository;
 
+import com.example.drugdb.dto.DrugSummary;
 import com.example.drugdb.entity.Drug;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface DrugRepository extends JpaRepository<Drug, Long> {
+
+    // Drugs with their side effects in a single query
+    @Transactional(readOnly = true)
+    @QueryHints({
+            @QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select distinct d from Drug d left join fetch d.sideEffects order by d.id")
+    List<Drug> findAllWithSideEffects();
+
+    // Drugs with the given ids and their side effects in a single query; unknown ids are skipped
+    @Transactional(readOnly = true)
+    @QueryHints({
+            @QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select distinct d from Drug d left join fetch d.sideEffects where d.id in :ids order by d.id")
+    List<Drug> findAllWithSideEffectsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Keyset pagination: the page after the given id
+    List<Drug> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    List<DrugSummary> findSummariesByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    // Must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select d from Drug d left join fetch d.sideEffects order by d.id")
+    Stream<Drug> streamAll();
 }
@@ -0,0 +1,47 @@
+package com.example.drugdb.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonically increasing version of the drug catalogue, behind the ETags
+ * of GET /drugs (the catalogue version) and GET /drugs/{id} (the version a
+ * drug was last written at). A write stamps the drugs it writes with next()
+ * and calls changed() once committed, so the catalogue version only moves
+ * on after the data it stands for is visible, and moves on for every write,
+ * whatever order concurrent writes commit in.
+ *
+ * Versions continue from the clock at startup rather than from 0: the
+ * database is in memory, and a tag handed out before a restart must not
+ * match different data after it.
+ */
+@Component
+public class CatalogueVersion {
+
+    private final AtomicLong assigned = new AtomicLong(System.currentTimeMillis());
+    private final AtomicLong published = new AtomicLong(assigned.get());
+
+    /**
+     * The version of the catalogue as last committed.
+     */
+    public long current() {
+        return published.get();
+    }
+
+    /**
+     * A new version for a write about to be made; above every version
+     * handed out so far.
+     */
+    public long next() {
+        return assigned.updateAndGet(v -> Math.max(v + 1, System.currentTimeMillis()));
+    }
+
+    /**
+     * Called after a write commits: the catalogue takes a version above
+     * every one handed out so far.
+     */
+    public void changed() {
+        published.accumulateAndGet(next(), Math::max);
+    }
+}
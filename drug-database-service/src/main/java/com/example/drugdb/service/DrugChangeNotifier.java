@@ -0,0 +1,107 @@
+package com.example.drugdb.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Tells services that cache drugs (interaction-service) that a drug changed,
+ * so they can drop their copy. Notifications are sent asynchronously and
+ * best-effort: a listener that is down simply relies on its cache TTL.
+ *
+ * When the host of a listener URL is a service registered with Eureka, the
+ * notification goes to every instance of it, since each replica has its own
+ * cache and a request to the service address would reach only one of them.
+ * Other URLs (or a service not known to Eureka) are called as they are.
+ * Replicas registered after the notification was sent keep their copy until
+ * the TTL expires.
+ */
+@Component
+public class DrugChangeNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(DrugChangeNotifier.class);
+
+    private final List<String> listenerUrls;
+    private final DiscoveryClient discoveryClient;
+    private final RestTemplate restTemplate;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "drug-change-notifier");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public DrugChangeNotifier(@Value("${drug.change.listener-urls:}") List<String> listenerUrls,
+                              DiscoveryClient discoveryClient,
+                              RestTemplateBuilder restTemplateBuilder) {
+        this.listenerUrls = listenerUrls;
+        this.discoveryClient = discoveryClient;
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(Duration.ofSeconds(2))
+                .setReadTimeout(Duration.ofSeconds(2))
+                .build();
+    }
+
+    public void drugChanged(Long id) {
+        notifyListeners("/" + id);
+    }
+
+    public void catalogueChanged() {
+        notifyListeners("");
+    }
+
+    private void notifyListeners(String path) {
+        for (String url : listenerUrls) {
+            if (url.isBlank()) continue;
+            executor.execute(() -> {
+                for (String target : targets(url)) {
+                    try {
+                        restTemplate.delete(target + path);
+                    } catch (Exception ex) {
+                        log.warn("Could not notify {} of drug change: {}", target + path, ex.getMessage());
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * The listener URL on every registered instance of the service named by
+     * its host, or the URL itself if there are none.
+     */
+    private List<String> targets(String url) {
+        List<ServiceInstance> instances;
+        URI uri;
+        try {
+            uri = URI.create(url);
+            instances = uri.getHost() == null ? List.of() : discoveryClient.getInstances(uri.getHost());
+        } catch (Exception ex) {
+            log.debug("No instances looked up for {}: {}", url, ex.getMessage());
+            return List.of(url);
+        }
+        if (instances.isEmpty()) return List.of(url);
+
+        List<String> targets = new ArrayList<>(instances.size());
+        for (ServiceInstance instance : instances) {
+            targets.add(instance.getUri() + uri.getRawPath());
+        }
+        return targets;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
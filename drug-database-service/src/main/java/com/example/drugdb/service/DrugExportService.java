@@ -0,0 +1,49 @@
+package com.example.drugdb.service;
+
+import com.example.drugdb.entity.Drug;
+import com.example.drugdb.repository.DrugRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the catalogue as newline-delimited JSON straight from a JPA stream.
+ * Each drug is detached once written, so the persistence context (and the
+ * heap) only ever holds the current fetch window.
+ */
+@Service
+public class DrugExportService {
+
+    private final DrugRepository drugRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public DrugExportService(DrugRepository drugRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.drugRepository = drugRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public long exportNdjson(OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<Drug> drugs = drugRepository.streamAll()) {
+            Iterator<Drug> it = drugs.iterator();
+            while (it.hasNext()) {
+                Drug drug = it.next();
+                out.write(objectMapper.writeValueAsBytes(drug));
+                out.write('\n');
+                entityManager.detach(drug);
+                count++;
+            }
+        }
+        out.flush();
+        return count;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.drugdb.service;
+
+import com.example.drugdb.dto.ImportReport;
+import com.example.drugdb.entity.Drug;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imports large formularies without holding them in memory. The body is read
+ * one drug at a time (a JSON array or newline-delimited JSON), and every
+ * chunk of drugs is inserted and committed in its own transaction, with JDBC
+ * batching doing the inserts and the persistence context cleared afterwards.
+ * Each chunk is stamped with its own catalogue version, which becomes
+ * current as soon as the chunk is committed.
+ */
+@Service
+public class DrugImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(DrugImportService.class);
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final CatalogueVersion catalogueVersion;
+    private final int defaultChunkSize;
+
+    private final Timer chunkTimer;
+    private final Counter importedRows;
+
+    public DrugImportService(EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             CatalogueVersion catalogueVersion,
+                             MeterRegistry meterRegistry,
+                             @Value("${drug.import.chunk-size:1000}") int defaultChunkSize) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.catalogueVersion = catalogueVersion;
+        this.defaultChunkSize = defaultChunkSize;
+        this.chunkTimer = Timer.builder("drug.import.chunk")
+                .description("Insert and commit of one import chunk")
+                .register(meterRegistry);
+        this.importedRows = Counter.builder("drug.import.rows")
+                .description("Drugs committed by POST /drugs/import")
+                .register(meterRegistry);
+    }
+
+    public ImportReport importDrugs(InputStream body, Integer chunkSize) {
+        int size = chunkSize != null && chunkSize > 0 ? chunkSize : defaultChunkSize;
+        long start = System.nanoTime();
+        long imported = 0;
+        int chunks = 0;
+        List<Drug> chunk = new ArrayList<>(size);
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+            while (token == JsonToken.START_OBJECT) {
+                Drug drug = objectMapper.readValue(parser, Drug.class);
+                drug.setId(null); // imported drugs are always new
+                chunk.add(drug);
+                if (chunk.size() == size) {
+                    imported += commit(chunk);
+                    chunks++;
+                    logProgress(imported, start);
+                }
+                token = parser.nextToken();
+            }
+            if (token != null && token != JsonToken.END_ARRAY) {
+                throw new IllegalArgumentException("Expected a drug object but found " + token
+                        + " at " + parser.getCurrentLocation());
+            }
+            if (!chunk.isEmpty()) {
+                imported += commit(chunk);
+                chunks++;
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Drug import stopped after {} drugs: {}", imported, ex.getMessage());
+            return new ImportReport(imported, chunks, elapsedMs(start), ex.getMessage());
+        }
+
+        ImportReport report = new ImportReport(imported, chunks, elapsedMs(start), null);
+        log.info("Imported {} drugs in {} chunks ({} ms, {} rows/s)",
+                imported, chunks, report.getElapsedMs(), report.getRowsPerSecond());
+        return report;
+    }
+
+    private int commit(List<Drug> chunk) {
+        int count = chunk.size();
+        long start = System.nanoTime();
+        long version = catalogueVersion.next();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Drug drug : chunk) {
+                drug.setVersion(version);
+                entityManager.persist(drug);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+        catalogueVersion.changed();
+        chunkTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        importedRows.increment(count);
+        chunk.clear();
+        return count;
+    }
+
+    private void logProgress(long imported, long start) {
+        long elapsed = elapsedMs(start);
+        log.info("Imported {} drugs so far ({} rows/s)", imported, elapsed == 0 ? imported : imported * 1000 / elapsed);
+    }
+
+    private static long elapsedMs(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
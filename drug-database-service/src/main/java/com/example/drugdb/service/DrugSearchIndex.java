@@ -0,0 +1,490 @@
+package com.example.drugdb.service;
+
+import com.example.drugdb.dto.DrugMatch;
+import com.example.drugdb.entity.Drug;
+import com.example.drugdb.repository.DrugRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory name index of the whole catalogue behind /drugs/search, so that
+ * finding a drug by name never scans the drug table. Names are normalised
+ * (case, accents and punctuation folded) and indexed three ways:
+ * <ul>
+ *   <li>a sorted map of whole names, for exact matches and autocomplete;</li>
+ *   <li>a sorted map of every later word to the end of the name, so "acid"
+ *       also completes "Salicylic acid";</li>
+ *   <li>an inverted index of each word's padded trigrams. Drugs sharing
+ *       enough trigrams with the query are the candidates for typo-tolerant
+ *       matches, which are then checked with a bounded edit distance.</li>
+ * </ul>
+ * Built from the database once the application is ready and kept current by
+ * the controllers; bulk changes (import, clear) rebuild it.
+ */
+@Component
+public class DrugSearchIndex {
+
+    public enum Mode { AUTO, EXACT, PREFIX, FUZZY }
+
+    private static final Logger log = LoggerFactory.getLogger(DrugSearchIndex.class);
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final DrugRepository drugRepository;
+
+    // searches share the read lock; updates and the swap after a rebuild take the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    // while a rebuild reads the catalogue: the drugs put (or removed, as null) since it started
+    private Map<Long, Drug> pending;
+
+    public DrugSearchIndex(DrugRepository drugRepository) {
+        this.drugRepository = drugRepository;
+    }
+
+    /**
+     * Re-reads the catalogue page by page into a new index, which replaces
+     * the current one when complete; searches keep using the old one until then.
+     * Drugs put or removed while the pages are read may be missed by them, so
+     * those updates are recorded and replayed onto the new index before the swap.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pending = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Index fresh = new Index();
+        try {
+            PageRequest page = PageRequest.ofSize(PAGE_SIZE);
+            Long after = 0L;
+            List<Drug> drugs;
+            do {
+                drugs = drugRepository.findByIdGreaterThanOrderByIdAsc(after, page);
+                for (Drug drug : drugs) {
+                    fresh.put(drug);
+                    after = drug.getId();
+                }
+            } while (drugs.size() == PAGE_SIZE);
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw ex;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pending.forEach((id, drug) -> {
+                fresh.remove(id);
+                if (drug != null) fresh.put(drug);
+            });
+            pending = null;
+            index = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Drug search index built with {} drugs in {} ms", fresh.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Adds a saved drug, or replaces its entry if its name changed.
+     */
+    public void put(Drug drug) {
+        putAll(Collections.singletonList(drug));
+    }
+
+    public void putAll(Collection<Drug> drugs) {
+        lock.writeLock().lock();
+        try {
+            for (Drug drug : drugs) {
+                index.remove(drug.getId());
+                index.put(drug);
+                if (pending != null) pending.put(drug.getId(), drug);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            index.remove(id);
+            if (pending != null) pending.put(id, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to limit drugs matching the query. AUTO returns exact matches first,
+     * then prefix matches by whole name and then by later word, and only
+     * looks for typos when neither found anything. Fuzzy matches are ranked
+     * by distance, then by the number of trigrams shared with the query.
+     */
+    public List<DrugMatch> search(String query, Mode mode, int limit) {
+        String key = normalize(query);
+        if (key.isEmpty() || limit <= 0) return Collections.emptyList();
+
+        Results results = new Results(limit);
+        lock.readLock().lock();
+        try {
+            if (mode == Mode.AUTO || mode == Mode.EXACT) index.exact(key, results);
+            if ((mode == Mode.AUTO || mode == Mode.PREFIX) && !results.isFull()) index.prefix(key, results);
+            if (mode == Mode.FUZZY || mode == Mode.AUTO && results.matches.isEmpty()) index.fuzzy(key, results);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return results.matches;
+    }
+
+    /**
+     * The id of the drug named exactly like each name, keyed by the name as
+     * given; names no drug has are left out. Where several drugs share a
+     * name, the lowest id wins. All names are looked up under one read lock.
+     */
+    public Map<String, Long> resolve(Collection<String> names) {
+        Map<String, Long> ids = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            for (String name : names) {
+                Long id = index.resolve(normalize(name));
+                if (id != null) ids.put(name, id);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ids;
+    }
+
+    /**
+     * Lower case without accents, with every run of other characters than
+     * letters and digits collapsed to one space: "Amoxicillin/Clavulanate"
+     * and "amoxicillin clavulanate" are the same name.
+     */
+    static String normalize(String name) {
+        if (name == null) return "";
+        String text = Normalizer.normalize(name, Normalizer.Form.NFKD).toLowerCase(Locale.ROOT);
+        StringBuilder key = new StringBuilder(text.length());
+        boolean gap = false;
+        for (int i = 0; i < text.length(); ) {
+            int c = text.codePointAt(i);
+            i += Character.charCount(c);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) continue;
+            if (Character.isLetterOrDigit(c)) {
+                if (gap && key.length() > 0) key.append(' ');
+                key.appendCodePoint(c);
+                gap = false;
+            } else {
+                gap = true;
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Typos tolerated for a query of this length: none below 4 characters,
+     * where prefixes already narrow things down, then one, then two from 8.
+     */
+    static int maxDistance(int length) {
+        return length < 4 ? 0 : length < 8 ? 1 : 2;
+    }
+
+    /**
+     * Optimal string alignment distance (insertions, deletions,
+     * substitutions and adjacent transpositions), or max + 1 as soon as it
+     * is known to exceed max.
+     */
+    static int distance(String a, String b, int max) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > max) return max + 1;
+
+        int[] before = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= m; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int d = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d = Math.min(d, before[j - 2] + 1);
+                }
+                current[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > max) return max + 1;
+            int[] recycled = before;
+            before = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[m], max + 1);
+    }
+
+    /**
+     * Trigrams of each word padded with '$' at both ends, so that first and
+     * last letters weigh as much as the middle: "aspirin" gives $as, asp,
+     * spi, pir, iri, rin and in$.
+     */
+    static Set<String> trigrams(String key) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (String word : key.split(" ")) {
+            String padded = "$" + word + "$";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+
+    private static final class Index {
+
+        private final Map<Long, Entry> byId = new HashMap<>();
+        // normalised name -> drugs with that name
+        private final TreeMap<String, List<Entry>> byName = new TreeMap<>();
+        // "acid" for "salicylic acid", "b c" and "c" for "a b c"
+        private final TreeMap<String, List<Entry>> byLaterWords = new TreeMap<>();
+        private final Map<String, Set<Entry>> byTrigram = new HashMap<>();
+
+        int size() {
+            return byId.size();
+        }
+
+        void put(Drug drug) {
+            if (drug.getId() == null) return;
+            String key = normalize(drug.getName());
+            if (key.isEmpty()) return;
+
+            Entry entry = new Entry(drug.getId(), drug.getName(), drug.getCategory(), key);
+            byId.put(entry.id, entry);
+            byName.computeIfAbsent(key, k -> new ArrayList<>(1)).add(entry);
+            for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+                byLaterWords.computeIfAbsent(key.substring(i + 1), k -> new ArrayList<>(1)).add(entry);
+            }
+            for (String gram : trigrams(key)) {
+                byTrigram.computeIfAbsent(gram, g -> new HashSet<>()).add(entry);
+            }
+        }
+
+        void remove(Long id) {
+            Entry entry = byId.remove(id);
+            if (entry == null) return;
+
+            String key = entry.key;
+            removeFrom(byName, key, entry);
+            for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+                removeFrom(byLaterWords, key.substring(i + 1), entry);
+            }
+            for (String gram : trigrams(key)) {
+                Set<Entry> posting = byTrigram.get(gram);
+                if (posting != null && posting.remove(entry) && posting.isEmpty()) {
+                    byTrigram.remove(gram);
+                }
+            }
+        }
+
+        private static void removeFrom(Map<String, List<Entry>> map, String key, Entry entry) {
+            List<Entry> entries = map.get(key);
+            if (entries != null && entries.remove(entry) && entries.isEmpty()) {
+                map.remove(key);
+            }
+        }
+
+        void exact(String key, Results results) {
+            List<Entry> entries = byName.get(key);
+            if (entries == null) return;
+            for (Entry entry : entries) {
+                if (!results.add(entry, DrugMatch.Type.EXACT, 0)) return;
+            }
+        }
+
+        Long resolve(String key) {
+            List<Entry> entries = byName.get(key);
+            if (entries == null) return null;
+            Long id = null;
+            for (Entry entry : entries) {
+                if (id == null || entry.id < id) id = entry.id;
+            }
+            return id;
+        }
+
+        void prefix(String key, Results results) {
+            if (scan(byName, key, results)) {
+                scan(byLaterWords, key, results);
+            }
+        }
+
+        /**
+         * Adds the entries whose key starts with prefix, in key order;
+         * false once the results are full.
+         */
+        private static boolean scan(TreeMap<String, List<Entry>> map, String prefix, Results results) {
+            for (List<Entry> entries : map.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+                for (Entry entry : entries) {
+                    if (!results.add(entry, DrugMatch.Type.PREFIX, 0)) return false;
+                }
+            }
+            return true;
+        }
+
+        void fuzzy(String key, Results results) {
+            int max = maxDistance(key.length());
+            if (max == 0) return;
+
+            // an insertion, deletion or substitution changes at most three trigrams and
+            // an adjacent transposition four, so a match shares at least minShared
+            Set<String> grams = trigrams(key);
+            int minShared = Math.max(1, grams.size() - 4 * max);
+            List<Set<Entry>> postings = new ArrayList<>(grams.size());
+            for (String gram : grams) {
+                Set<Entry> posting = byTrigram.get(gram);
+                if (posting != null) postings.add(posting);
+            }
+            // A match missing from all of the shortest (lists - minShared + 1)
+            // lists cannot reach minShared, so only those are scanned for
+            // candidates; the long lists of common trigrams are only probed.
+            int scanned = postings.size() - minShared + 1;
+            if (scanned <= 0) return;
+            postings.sort(Comparator.comparingInt(Set::size));
+
+            Set<Entry> checked = new HashSet<>();
+            List<Candidate> candidates = new ArrayList<>();
+            for (int p = 0; p < scanned; p++) {
+                for (Entry entry : postings.get(p)) {
+                    // first seen in list p, so absent from the lists before it
+                    if (!checked.add(entry) || results.contains(entry)) continue;
+                    int shared = 1;
+                    for (int q = p + 1; q < postings.size(); q++) {
+                        if (postings.get(q).contains(entry)) shared++;
+                    }
+                    if (shared < minShared) continue;
+                    int distance = entry.distance(key, max);
+                    if (distance <= max) {
+                        candidates.add(new Candidate(entry, distance, shared));
+                    }
+                }
+            }
+            candidates.sort(Comparator.comparingInt((Candidate c) -> c.distance)
+                    .thenComparingInt(c -> -c.shared)
+                    .thenComparing(c -> c.entry.key));
+            for (Candidate c : candidates) {
+                if (!results.add(c.entry, DrugMatch.Type.FUZZY, c.distance)) return;
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final Long id;
+        private final String name;
+        private final String category;
+        private final String key;
+        private final String[] words; // null for one-word names
+
+        private Entry(Long id, String name, String category, String key) {
+            this.id = id;
+            this.name = name;
+            this.category = category;
+            this.key = key;
+            this.words = key.indexOf(' ') < 0 ? null : key.split(" ");
+        }
+
+        /**
+         * Distance from the query to the whole name or, for a one-word
+         * query, to the closest word of the name.
+         */
+        private int distance(String query, int max) {
+            int best = DrugSearchIndex.distance(query, key, max);
+            if (best > 0 && words != null && query.indexOf(' ') < 0) {
+                for (String word : words) {
+                    best = Math.min(best, DrugSearchIndex.distance(query, word, max));
+                }
+            }
+            return best;
+        }
+    }
+
+    private static final class Candidate {
+        private final Entry entry;
+        private final int distance;
+        private final int shared;
+
+        private Candidate(Entry entry, int distance, int shared) {
+            this.entry = entry;
+            this.distance = distance;
+            this.shared = shared;
+        }
+    }
+
+    private static final class Results {
+        private final int limit;
+        private final List<DrugMatch> matches = new ArrayList<>();
+        private final Set<Entry> seen = new HashSet<>();
+
+        private Results(int limit) {
+            this.limit = limit;
+        }
+
+        /**
+         * Adds the entry unless already matched; false once full.
+         */
+        private boolean add(Entry entry, DrugMatch.Type type, int distance) {
+            if (isFull()) return false;
+            if (seen.add(entry)) {
+                matches.add(new DrugMatch(entry.id, entry.name, entry.category, type, distance));
+            }
+            return !isFull();
+        }
+
+        private boolean contains(Entry entry) {
+            return seen.contains(entry);
+        }
+
+        private boolean isFull() {
+            return matches.size() >= limit;
+        }
+    }
+}
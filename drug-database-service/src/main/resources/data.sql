@@ -1,13 +1,13 @@
-INSERT INTO drug (id, name, category, dosage_mg) VALUES (1, 'Aspirin', 'NSAID', 300);
-INSERT INTO drug (id, name, category, dosage_mg) VALUES (2, 'Warfarin', 'Anticoagulant', 5);
-INSERT INTO drug (id, name, category, dosage_mg) VALUES (3, 'Ibuprofen', 'NSAID', 400);
-INSERT INTO drug (id, name, category, dosage_mg) VALUES (4, 'Paracetamol', 'Analgesic', 500);
-INSERT INTO drug (id, name, category, dosage_mg) VALUES (5, 'Amoxicillin', 'Antibiotic', 500);
-INSERT INTO drug (id, name, category, dosage_mg) VALUES (6, 'Lisinopril', 'ACE Inhibitor', 10);
-INSERT INTO drug (id, name, category, dosage_mg) VALUES (7, 'Atorvastatin', 'Statin', 20);
-INSERT INTO drug (id, name, category, dosage_mg) VALUES (8, 'Metformin', 'Antidiabetic', 500);
-INSERT INTO drug (id, name, category, dosage_mg) VALUES (9, 'Ciprofloxacin', 'Antibiotic', 500);
-INSERT INTO drug (id, name, category, dosage_mg) VALUES (10, 'Cetirizine', 'Antihistamine', 10);
+INSERT INTO drug (id, name, category, dosage_mg, version) VALUES (1, 'Aspirin', 'NSAID', 300, 0);
+INSERT INTO drug (id, name, category, dosage_mg, version) VALUES (2, 'Warfarin', 'Anticoagulant', 5, 0);
+INSERT INTO drug (id, name, category, dosage_mg, version) VALUES (3, 'Ibuprofen', 'NSAID', 400, 0);
+INSERT INTO drug (id, name, category, dosage_mg, version) VALUES (4, 'Paracetamol', 'Analgesic', 500, 0);
+INSERT INTO drug (id, name, category, dosage_mg, version) VALUES (5, 'Amoxicillin', 'Antibiotic', 500, 0);
+INSERT INTO drug (id, name, category, dosage_mg, version) VALUES (6, 'Lisinopril', 'ACE Inhibitor', 10, 0);
+INSERT INTO drug (id, name, category, dosage_mg, version) VALUES (7, 'Atorvastatin', 'Statin', 20, 0);
+INSERT INTO drug (id, name, category, dosage_mg, version) VALUES (8, 'Metformin', 'Antidiabetic', 500, 0);
+INSERT INTO drug (id, name, category, dosage_mg, version) VALUES (9, 'Ciprofloxacin', 'Antibiotic', 500, 0);
+INSERT INTO drug (id, name, category, dosage_mg, version) VALUES (10, 'Cetirizine', 'Antihistamine', 10, 0);
 
 INSERT INTO drug_side_effects (drug_id, side_effect) VALUES (1, 'Nausea');
 INSERT INTO drug_side_effects (drug_id, side_effect) VALUES (1, 'Bleeding');
@@ -21,3 +21,6 @@ INSERT INTO drug_side_effects (drug_id, side_effect) VALUES (7, 'Muscle Pain');
 INSERT INTO drug_side_effects (drug_id, side_effect) VALUES (8, 'Nausea');
 INSERT INTO drug_side_effects (drug_id, side_effect) VALUES (9, 'Nausea');
 INSERT INTO drug_side_effects (drug_id, side_effect) VALUES (10, 'Drowsiness');
+
+-- Keep generated ids clear of the explicit ids above
+ALTER SEQUENCE drug_seq RESTART WITH 1001;
@@ -1,7 +1,14 @@
 package com.example.drugdb.controller;
 
+import com.example.drugdb.dto.DrugMatch;
+import com.example.drugdb.dto.ImportReport;
 import com.example.drugdb.entity.Drug;
 import com.example.drugdb.repository.DrugRepository;
+import com.example.drugdb.service.CatalogueVersion;
+import com.example.drugdb.service.DrugChangeNotifier;
+import com.example.drugdb.service.DrugExportService;
+import com.example.drugdb.service.DrugImportService;
+import com.example.drugdb.service.DrugSearchIndex;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -29,6 +36,21 @@ public class DrugControllerTest {
     @MockBean
     private DrugRepository drugRepository;
 
+    @MockBean
+    private DrugChangeNotifier drugChangeNotifier;
+
+    @MockBean
+    private DrugExportService drugExportService;
+
+    @MockBean
+    private DrugImportService drugImportService;
+
+    @MockBean
+    private DrugSearchIndex drugSearchIndex;
+
+    @MockBean
+    private CatalogueVersion catalogueVersion;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -48,7 +70,7 @@ public class DrugControllerTest {
         drug2.setDosageMg(200);
         drug2.setSideEffects(Collections.singletonList("Dizziness"));
 
-        Mockito.when(drugRepository.findAll()).thenReturn(Arrays.asList(drug1, drug2));
+        Mockito.when(drugRepository.findAllWithSideEffects()).thenReturn(Arrays.asList(drug1, drug2));
 
         mockMvc.perform(get("/drugs"))
                 .andExpect(status().isOk())
@@ -73,6 +95,65 @@ public class DrugControllerTest {
                 .andExpect(jsonPath("$.name").value("Aspirin"));
     }
 
+    @Test
+    public void testGetDrugByIdHonoursIfNoneMatch() throws Exception {
+        Drug drug = new Drug();
+        drug.setId(1L);
+        drug.setName("Aspirin");
+        drug.setVersion(42L);
+        Mockito.when(drugRepository.findById(1L)).thenReturn(Optional.of(drug));
+
+        mockMvc.perform(get("/drugs/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"42\""))
+                .andExpect(jsonPath("$.version").value(42));
+        mockMvc.perform(get("/drugs/1").header("If-None-Match", "W/\"41\", \"42\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "W/\"42\""))
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/drugs/1").header("If-None-Match", "W/\"41\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Aspirin"));
+    }
+
+    @Test
+    public void testGetAllDrugsIsNotModifiedUntilTheCatalogueChanges() throws Exception {
+        Mockito.when(catalogueVersion.current()).thenReturn(7L);
+
+        mockMvc.perform(get("/drugs").header("If-None-Match", "W/\"7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "W/\"7\""));
+        Mockito.verify(drugRepository, Mockito.never()).findAllWithSideEffects();
+
+        Mockito.when(catalogueVersion.current()).thenReturn(8L);
+        mockMvc.perform(get("/drugs").header("If-None-Match", "W/\"7\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"8\""));
+    }
+
+    @Test
+    public void testGetDrugPage() throws Exception {
+        Drug drug1 = new Drug();
+        drug1.setId(3L);
+        drug1.setName("Aspirin");
+        Drug drug2 = new Drug();
+        drug2.setId(4L);
+        drug2.setName("Ibuprofen");
+
+        Mockito.when(drugRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), any()))
+                .thenReturn(Arrays.asList(drug1, drug2));
+
+        mockMvc.perform(get("/drugs/page").param("after", "2").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].name").value("Aspirin"))
+                .andExpect(jsonPath("$.nextCursor").value(4));
+
+        mockMvc.perform(get("/drugs/page").param("after", "2").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
     @Test
     public void testAddDrug() throws Exception {
         Drug drug = new Drug();
@@ -96,6 +177,71 @@ public class DrugControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.name").value("Paracetamol"));
+
+        Mockito.verify(drugSearchIndex).put(savedDrug);
+        Mockito.verify(catalogueVersion).changed();
+        Mockito.verify(drugChangeNotifier).drugChanged(1L);
+    }
+
+    @Test
+    public void testAddDrugsBulk() throws Exception {
+        Drug drug = new Drug();
+        drug.setId(1L);
+        drug.setName("Paracetamol");
+        Mockito.when(drugRepository.saveAll(any())).thenReturn(Collections.singletonList(drug));
+
+        mockMvc.perform(post("/drugs/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"name\": \"Paracetamol\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1));
+
+        Mockito.verify(drugSearchIndex).putAll(Collections.singletonList(drug));
+        Mockito.verify(drugChangeNotifier).catalogueChanged();
+    }
+
+    @Test
+    public void testSearchDrugs() throws Exception {
+        Mockito.when(drugSearchIndex.search("asprin", DrugSearchIndex.Mode.FUZZY, 100))
+                .thenReturn(Collections.singletonList(new DrugMatch(8L, "Aspirin", "Painkiller", DrugMatch.Type.FUZZY, 1)));
+
+        mockMvc.perform(get("/drugs/search").param("q", "asprin").param("mode", "fuzzy").param("limit", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Aspirin"))
+                .andExpect(jsonPath("$[0].match").value("FUZZY"))
+                .andExpect(jsonPath("$[0].distance").value(1));
+
+        mockMvc.perform(get("/drugs/search").param("q", "asp").param("mode", "soundex"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testResolveDrugNames() throws Exception {
+        Mockito.when(drugSearchIndex.resolve(any())).thenReturn(Collections.singletonMap("aspirin", 8L));
+
+        mockMvc.perform(post("/drugs/resolve")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[\"aspirin\", \"unobtainium\"]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.aspirin").value(8))
+                .andExpect(jsonPath("$.unobtainium").doesNotExist());
+    }
+
+    @Test
+    public void testImportDrugs() throws Exception {
+        Mockito.when(drugImportService.importDrugs(any(), eq(500)))
+                .thenReturn(new ImportReport(1200, 3, 600, null));
+
+        mockMvc.perform(post("/drugs/import")
+                .param("chunkSize", "500")
+                .contentType("application/x-ndjson")
+                .content("{\"name\":\"Aspirin\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1200))
+                .andExpect(jsonPath("$.rowsPerSecond").value(2000));
+
+        Mockito.verify(drugSearchIndex).rebuild();
+        Mockito.verify(drugChangeNotifier).catalogueChanged();
     }
 
     @Test
@@ -106,5 +252,9 @@ public class DrugControllerTest {
         mockMvc.perform(delete("/drugs/1"))
                 .andExpect(status().isOk())
                 .andExpect(content().string("Deleted drug with id: 1"));
+
+        Mockito.verify(drugSearchIndex).remove(1L);
+        Mockito.verify(catalogueVersion).changed();
+        Mockito.verify(drugChangeNotifier).drugChanged(1L);
     }
 }
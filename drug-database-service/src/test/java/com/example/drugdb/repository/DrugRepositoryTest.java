@@ -0,0 +1,79 @@
+package com.example.drugdb.repository;
+
+import com.example.drugdb.entity.Drug;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards against N+1 loading of Drug.sideEffects by counting the SQL
+ * statements Hibernate prepares.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class DrugRepositoryTest {
+
+    private static final int DRUG_COUNT = 1000;
+
+    @Autowired
+    private DrugRepository drugRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        List<Drug> drugs = new ArrayList<>();
+        for (int i = 0; i < DRUG_COUNT; i++) {
+            Drug drug = new Drug();
+            drug.setName("Drug " + i);
+            drug.setCategory("Category " + (i % 10));
+            drug.setDosageMg(100);
+            drug.setSideEffects(Arrays.asList("Nausea", "Headache", "Effect " + i));
+            drugs.add(drug);
+        }
+        drugRepository.saveAll(drugs);
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testFindAllWithSideEffectsUsesOneStatement() {
+        List<Drug> drugs = drugRepository.findAllWithSideEffects();
+        drugs.forEach(drug -> drug.getSideEffects().size());
+
+        assertThat(drugs).hasSizeGreaterThanOrEqualTo(DRUG_COUNT);
+        assertThat(drugs.get(drugs.size() - 1).getSideEffects()).hasSize(3);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testPageLoadsSideEffectsInBatches() {
+        int pageSize = 500;
+        List<Drug> page = drugRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.ofSize(pageSize));
+        page.forEach(drug -> drug.getSideEffects().size());
+
+        assertThat(page).hasSize(pageSize);
+        // one select for the page plus one per batch of 100 side-effect collections
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(1 + pageSize / 100);
+    }
+}
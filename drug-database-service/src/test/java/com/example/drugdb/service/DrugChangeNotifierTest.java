@@ -0,0 +1,67 @@
+package com.example.drugdb.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.boot.test.web.client.MockServerRestTemplateCustomizer;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.web.client.MockRestServiceServer;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+public class DrugChangeNotifierTest {
+
+    private final DiscoveryClient discoveryClient = Mockito.mock(DiscoveryClient.class);
+    private final MockServerRestTemplateCustomizer customizer = new MockServerRestTemplateCustomizer();
+    private DrugChangeNotifier notifier;
+
+    @AfterEach
+    public void tearDown() {
+        notifier.shutdown();
+    }
+
+    @Test
+    public void testEveryRegisteredInstanceIsNotified() {
+        Mockito.when(discoveryClient.getInstances("interaction-service")).thenReturn(List.of(
+                instance("10.0.0.5"), instance("10.0.0.6")));
+        MockRestServiceServer server = server("http://interaction-service:9002/api/interactions/drug-cache");
+        server.expect(requestTo("http://10.0.0.5:9002/api/interactions/drug-cache/7"))
+                .andExpect(method(HttpMethod.DELETE)).andRespond(withSuccess());
+        server.expect(requestTo("http://10.0.0.6:9002/api/interactions/drug-cache/7"))
+                .andExpect(method(HttpMethod.DELETE)).andRespond(withSuccess());
+
+        notifier.drugChanged(7L);
+
+        server.verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void testUrlIsCalledAsIsWithoutRegisteredInstances() {
+        Mockito.when(discoveryClient.getInstances(Mockito.anyString())).thenReturn(List.of());
+        MockRestServiceServer server = server("http://localhost:9002/interactions/drug-cache");
+        server.expect(requestTo("http://localhost:9002/interactions/drug-cache"))
+                .andExpect(method(HttpMethod.DELETE)).andRespond(withSuccess());
+
+        notifier.catalogueChanged();
+
+        server.verify(Duration.ofSeconds(5));
+    }
+
+    private MockRestServiceServer server(String listenerUrl) {
+        notifier = new DrugChangeNotifier(List.of(listenerUrl), discoveryClient, new RestTemplateBuilder(customizer));
+        return customizer.getServer();
+    }
+
+    private static ServiceInstance instance(String host) {
+        return new DefaultServiceInstance(host, "interaction-service", host, 9002, false);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.drugdb.service;
+
+import com.example.drugdb.dto.ImportReport;
+import com.example.drugdb.repository.DrugRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({DrugImportService.class, CatalogueVersion.class, SimpleMeterRegistry.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+public class DrugImportServiceTest {
+
+    @Autowired
+    private DrugImportService drugImportService;
+
+    @Autowired
+    private DrugRepository drugRepository;
+
+    @Test
+    public void testImportNdjsonInChunks() {
+        long before = drugRepository.count();
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 2500; i++) {
+            body.append("{\"name\":\"Drug ").append(i)
+                    .append("\",\"category\":\"Test\",\"dosageMg\":10,\"sideEffects\":[\"Nausea\"]}\n");
+        }
+
+        ImportReport report = drugImportService.importDrugs(stream(body.toString()), 1000);
+
+        assertThat(report.getError()).isNull();
+        assertThat(report.getImported()).isEqualTo(2500);
+        assertThat(report.getChunks()).isEqualTo(3);
+        assertThat(drugRepository.count()).isEqualTo(before + 2500);
+    }
+
+    @Test
+    public void testImportJsonArrayIgnoresIds() {
+        long before = drugRepository.count();
+        String body = "[{\"id\":1,\"name\":\"Imported A\"},{\"id\":2,\"name\":\"Imported B\"}]";
+
+        ImportReport report = drugImportService.importDrugs(stream(body), null);
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(drugRepository.count()).isEqualTo(before + 2);
+    }
+
+    @Test
+    public void testImportReportsMalformedBody() {
+        ImportReport report = drugImportService.importDrugs(stream("[{\"name\":\"Ok\"}, 42]"), null);
+
+        assertThat(report.getError()).isNotNull();
+        assertThat(report.getImported()).isZero();
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
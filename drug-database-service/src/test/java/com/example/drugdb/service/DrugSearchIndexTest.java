@@ -0,0 +1,190 @@
+package com.example.drugdb.service;
+
+import com.example.drugdb.dto.DrugMatch;
+import com.example.drugdb.entity.Drug;
+import com.example.drugdb.repository.DrugRepository;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+public class DrugSearchIndexTest {
+
+    private final DrugRepository drugRepository = Mockito.mock(DrugRepository.class);
+    private final DrugSearchIndex index = new DrugSearchIndex(drugRepository);
+
+    @Test
+    public void testExactMatchIgnoresCaseAccentsAndPunctuation() {
+        load(drug(1L, "Paracetamol"), drug(2L, "Amoxicillin/Clavulanate"), drug(3L, "Paracetamol Extra"));
+
+        assertThat(index.search("PARACETAMOL", DrugSearchIndex.Mode.EXACT, 10))
+                .extracting(DrugMatch::getId).containsExactly(1L);
+        assertThat(index.search("amoxicillin  clavulanate", DrugSearchIndex.Mode.EXACT, 10))
+                .extracting(DrugMatch::getId).containsExactly(2L);
+        assertThat(index.search("Paracétamol", DrugSearchIndex.Mode.EXACT, 10))
+                .extracting(DrugMatch::getId).containsExactly(1L);
+    }
+
+    @Test
+    public void testAutoListsExactThenNamePrefixThenWordPrefix() {
+        load(drug(1L, "Aspirin Cardio"), drug(2L, "Salicylic acid"), drug(3L, "Aspirin"),
+                drug(4L, "Acetylsalicylic Acid"), drug(5L, "Ibuprofen"));
+
+        assertThat(index.search("aspirin", DrugSearchIndex.Mode.AUTO, 10))
+                .extracting(DrugMatch::getName, DrugMatch::getMatch)
+                .startsWith(
+                        Tuple.tuple("Aspirin", DrugMatch.Type.EXACT),
+                        Tuple.tuple("Aspirin Cardio", DrugMatch.Type.PREFIX));
+        assertThat(index.search("ac", DrugSearchIndex.Mode.PREFIX, 10))
+                .extracting(DrugMatch::getId).containsExactly(4L, 2L);
+        assertThat(index.search("ac", DrugSearchIndex.Mode.PREFIX, 1))
+                .extracting(DrugMatch::getId).containsExactly(4L);
+    }
+
+    @Test
+    public void testResolveMapsExactNamesToIds() {
+        load(drug(1L, "Aspirin"), drug(2L, "Warfarin"), drug(7L, "Ibuprofen"), drug(5L, "IBUPROFEN"));
+
+        assertThat(index.resolve(Arrays.asList("aspirin", "Warfarin ", "ibuprofen", "asprin", "Aspirin Cardio")))
+                .containsExactly(
+                        Map.entry("aspirin", 1L),
+                        Map.entry("Warfarin ", 2L),
+                        Map.entry("ibuprofen", 5L));
+    }
+
+    @Test
+    public void testTyposAreMatchedByEditDistance() {
+        load(drug(1L, "Aspirin"), drug(2L, "Ibuprofen"), drug(3L, "Azithromycin"), drug(4L, "Amoxicillin"));
+
+        assertThat(index.search("asprin", DrugSearchIndex.Mode.AUTO, 10))
+                .extracting(DrugMatch::getName, DrugMatch::getMatch, DrugMatch::getDistance)
+                .containsExactly(Tuple.tuple("Aspirin", DrugMatch.Type.FUZZY, 1));
+        assertThat(index.search("ibuporfen", DrugSearchIndex.Mode.FUZZY, 10))
+                .extracting(DrugMatch::getId).containsExactly(2L);
+        assertThat(index.search("azitromicin", DrugSearchIndex.Mode.FUZZY, 10))
+                .extracting(DrugMatch::getId, DrugMatch::getDistance)
+                .containsExactly(Tuple.tuple(3L, 2));
+        assertThat(index.search("zzzzzzz", DrugSearchIndex.Mode.AUTO, 10)).isEmpty();
+        // too short to guess at
+        assertThat(index.search("asp", DrugSearchIndex.Mode.FUZZY, 10)).isEmpty();
+    }
+
+    @Test
+    public void testTranspositionsInShortNamesAreMatched() {
+        load(drug(1L, "Aspirin"), drug(2L, "Heparin"), drug(3L, "Advil"));
+
+        assertThat(index.search("heaprin", DrugSearchIndex.Mode.AUTO, 10))
+                .extracting(DrugMatch::getId, DrugMatch::getDistance).containsExactly(Tuple.tuple(2L, 1));
+        assertThat(index.search("aspiirn", DrugSearchIndex.Mode.AUTO, 10))
+                .extracting(DrugMatch::getId, DrugMatch::getDistance).containsExactly(Tuple.tuple(1L, 1));
+        assertThat(index.search("adivl", DrugSearchIndex.Mode.FUZZY, 10))
+                .extracting(DrugMatch::getId, DrugMatch::getDistance).containsExactly(Tuple.tuple(3L, 1));
+    }
+
+    @Test
+    public void testUpdatesAndRemovalsAreSearchable() {
+        load(drug(1L, "Aspirin"));
+
+        index.put(drug(1L, "Aspirin Forte"));
+        index.put(drug(2L, "Warfarin"));
+        assertThat(index.search("aspirin", DrugSearchIndex.Mode.EXACT, 10)).isEmpty();
+        assertThat(index.search("aspirin", DrugSearchIndex.Mode.PREFIX, 10))
+                .extracting(DrugMatch::getName).containsExactly("Aspirin Forte");
+
+        index.remove(2L);
+        assertThat(index.search("warfarin", DrugSearchIndex.Mode.AUTO, 10)).isEmpty();
+        assertThat(index.search("warfarn", DrugSearchIndex.Mode.AUTO, 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testRebuildReadsTheCatalogueInPages() {
+        List<Drug> first = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            first.add(drug(id, "Drug " + id));
+        }
+        Mockito.when(drugRepository.findByIdGreaterThanOrderByIdAsc(Mockito.eq(0L), any())).thenReturn(first);
+        Mockito.when(drugRepository.findByIdGreaterThanOrderByIdAsc(Mockito.eq(1000L), any()))
+                .thenReturn(Collections.singletonList(drug(1001L, "Warfarin")));
+
+        index.rebuild();
+
+        assertThat(index.size()).isEqualTo(1001);
+        assertThat(index.search("warfarin", DrugSearchIndex.Mode.EXACT, 10)).extracting(DrugMatch::getId).containsExactly(1001L);
+    }
+
+    @Test
+    public void testUpdatesDuringARebuildAreKept() {
+        load(drug(1L, "Aspirin"), drug(2L, "Warfarin"));
+        // the page was read before these updates were committed
+        Mockito.when(drugRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any())).thenAnswer(inv -> {
+            index.put(drug(3L, "Heparin"));
+            index.put(drug(1L, "Aspirin Forte"));
+            index.remove(2L);
+            return Arrays.asList(drug(1L, "Aspirin"), drug(2L, "Warfarin"));
+        });
+
+        index.rebuild();
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.search("heparin", DrugSearchIndex.Mode.EXACT, 10)).extracting(DrugMatch::getId).containsExactly(3L);
+        assertThat(index.search("aspirin", DrugSearchIndex.Mode.AUTO, 10))
+                .extracting(DrugMatch::getName).containsExactly("Aspirin Forte");
+        assertThat(index.search("warfarin", DrugSearchIndex.Mode.AUTO, 10)).isEmpty();
+
+        // recording stops with the rebuild
+        load(drug(1L, "Aspirin"));
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testLargeCatalogue() {
+        Random random = new Random(42);
+        String[] syllables = {"ab", "ce", "di", "fo", "gu", "la", "me", "ni", "pro", "ru", "sta", "tin", "vo", "xa", "zol"};
+        List<Drug> drugs = new ArrayList<>();
+        for (long id = 1; id <= 100_000; id++) {
+            StringBuilder name = new StringBuilder();
+            for (int s = 2 + random.nextInt(4); s > 0; s--) {
+                name.append(syllables[random.nextInt(syllables.length)]);
+            }
+            drugs.add(drug(id, name + (random.nextInt(4) == 0 ? " forte" : "")));
+        }
+        drugs.add(drug(100_001L, "Metoprolol"));
+        index.putAll(drugs);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            assertThat(index.search("metoprolol", DrugSearchIndex.Mode.AUTO, 10)).isNotEmpty();
+            assertThat(index.search("metoporlol", DrugSearchIndex.Mode.AUTO, 10))
+                    .extracting(DrugMatch::getId).contains(100_001L);
+            index.search("prola", DrugSearchIndex.Mode.AUTO, 10);
+        }
+        long perSearchMicros = (System.nanoTime() - start) / 3000 / 1000;
+
+        // generous bound so slow CI machines pass; typically well under a millisecond
+        assertThat(perSearchMicros).isLessThan(5000);
+    }
+
+    private void load(Drug... drugs) {
+        Mockito.when(drugRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any())).thenReturn(Arrays.asList(drugs));
+        index.rebuild();
+    }
+
+    private static Drug drug(Long id, String name) {
+        Drug drug = new Drug();
+        drug.setId(id);
+        drug.setName(name);
+        drug.setCategory("Test");
+        return drug;
+    }
+}
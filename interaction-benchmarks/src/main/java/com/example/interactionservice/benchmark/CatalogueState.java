@@ -0,0 +1,49 @@
+package com.example.interactionservice.benchmark;
+
+import com.example.interactionservice.dto.DrugDTO;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A synthetic catalogue plus a fixed sequence of random drug pairs to analyze.
+ */
+@State(Scope.Benchmark)
+public class CatalogueState {
+
+    private static final int PAIRS = 1024; // power of two, see next()
+
+    @Param({"10", "1000", "100000"})
+    public int drugCount;
+
+    @Param({"2", "16", "64"})
+    public int sideEffectsPerDrug;
+
+    public List<DrugDTO> drugs;
+    public DrugDTO[] first;
+    public DrugDTO[] second;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        drugs = SyntheticCatalogue.generate(drugCount, sideEffectsPerDrug, 42);
+        first = new DrugDTO[PAIRS];
+        second = new DrugDTO[PAIRS];
+        Random random = new Random(7);
+        for (int i = 0; i < PAIRS; i++) {
+            first[i] = drugs.get(random.nextInt(drugCount));
+            second[i] = drugs.get(random.nextInt(drugCount));
+        }
+    }
+
+    /**
+     * Index of the pair to use for the given invocation counter.
+     */
+    public static int pair(int counter) {
+        return counter & (PAIRS - 1);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.interactionservice.benchmark;
+
+import com.example.interactionservice.model.InteractionRule;
+import com.example.interactionservice.service.RuleEngine;
+import com.example.interactionservice.service.SideEffectDictionary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RuleEngineBenchmark {
+
+    private RuleEngine ruleEngine;
+    private int counter;
+
+    @Setup
+    public void setUp() {
+        ruleEngine = new RuleEngine(new SideEffectDictionary(), new DefaultResourceLoader(), event -> { },
+                "classpath:interaction-rules.json", 0);
+    }
+
+    @Benchmark
+    public List<InteractionRule> evaluateRules(CatalogueState catalogue) {
+        int i = CatalogueState.pair(counter++);
+        return ruleEngine.evaluateRules(catalogue.first[i], catalogue.second[i]);
+    }
+}
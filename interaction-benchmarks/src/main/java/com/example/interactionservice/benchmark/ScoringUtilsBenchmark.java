@@ -0,0 +1,48 @@
+package com.example.interactionservice.benchmark;
+
+import com.example.interactionservice.model.ConflictType;
+import com.example.interactionservice.model.InteractionRule;
+import com.example.interactionservice.utils.ScoringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScoringUtilsBenchmark {
+
+    @Param({"0", "1", "3"})
+    public int ruleCount;
+
+    private List<InteractionRule> rules;
+
+    @Setup
+    public void setUp() {
+        ConflictType[] types = ConflictType.values();
+        rules = new ArrayList<>();
+        for (int i = 0; i < ruleCount; i++) {
+            rules.add(new InteractionRule(types[i % types.length], 15 + 25 * i, "rule " + i));
+        }
+    }
+
+    @Benchmark
+    public int calculateSeverity() {
+        return ScoringUtils.calculateSeverity(rules);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.interactionservice.benchmark;
+
+import com.example.interactionservice.client.DrugClient;
+import com.example.interactionservice.dto.DrugDTO;
+import com.example.interactionservice.dto.DrugPageDTO;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * In-memory DrugClient. Every call returns fresh copies, like Feign does.
+ */
+public class StubDrugClient implements DrugClient {
+
+    private final TreeMap<Long, DrugDTO> drugs = new TreeMap<>();
+
+    public StubDrugClient(List<DrugDTO> catalogue) {
+        for (DrugDTO drug : catalogue) {
+            drugs.put(drug.getId(), drug);
+        }
+    }
+
+    @Override
+    public DrugDTO getDrug(Long id) {
+        DrugDTO drug = drugs.get(id);
+        if (drug == null) throw new IllegalArgumentException("Drug not found with id: " + id);
+        return SyntheticCatalogue.copy(drug);
+    }
+
+    /**
+     * Never answers 304: every revalidation gets the drug again.
+     */
+    @Override
+    public DrugDTO getDrug(Long id, String ifNoneMatch) {
+        return getDrug(id);
+    }
+
+    @Override
+    public List<DrugDTO> getDrugs(Collection<Long> ids) {
+        List<DrugDTO> found = new ArrayList<>(ids.size());
+        for (Long id : new TreeSet<>(ids)) {
+            DrugDTO drug = drugs.get(id);
+            if (drug != null) found.add(SyntheticCatalogue.copy(drug));
+        }
+        return found;
+    }
+
+    @Override
+    public List<DrugDTO> getAllDrugs() {
+        List<DrugDTO> all = new ArrayList<>(drugs.size());
+        for (DrugDTO drug : drugs.values()) {
+            all.add(SyntheticCatalogue.copy(drug));
+        }
+        return all;
+    }
+
+    @Override
+    public DrugPageDTO getDrugPage(Long after, int size) {
+        List<DrugDTO> items = new ArrayList<>(size);
+        for (DrugDTO drug : drugs.tailMap(after, false).values()) {
+            if (items.size() == size) break;
+            items.add(SyntheticCatalogue.copy(drug));
+        }
+        DrugPageDTO page = new DrugPageDTO();
+        page.setItems(items);
+        page.setNextCursor(items.size() < size ? null : items.get(items.size() - 1).getId());
+        return page;
+    }
+}
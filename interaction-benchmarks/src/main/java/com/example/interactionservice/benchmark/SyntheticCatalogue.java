@@ -0,0 +1,68 @@
+package com.example.interactionservice.benchmark;
+
+import com.example.interactionservice.dto.DrugDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates reproducible drug catalogues that look like drug-database-service
+ * data: a handful of categories, realistic dosages and side effects drawn from
+ * a shared vocabulary (with mixed spelling case, as in the real data).
+ */
+public final class SyntheticCatalogue {
+
+    private static final String[] CATEGORIES = {
+            "NSAID", "Anticoagulant", "Analgesic", "Antibiotic", "ACE Inhibitor", "Statin",
+            "Antidiabetic", "Antihistamine", "Antacid", "Beta Blocker", "SSRI", "Opioid"
+    };
+
+    private static final int[] DOSAGES = {5, 10, 20, 50, 100, 250, 300, 400, 500, 750, 1000};
+
+    private static final int VOCABULARY_SIZE = 2000;
+
+    private SyntheticCatalogue() {}
+
+    public static List<DrugDTO> generate(int drugCount, int sideEffectsPerDrug, long seed) {
+        Random random = new Random(seed);
+        String[] vocabulary = new String[VOCABULARY_SIZE];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = "Side Effect " + i;
+        }
+
+        List<DrugDTO> drugs = new ArrayList<>(drugCount);
+        for (int i = 0; i < drugCount; i++) {
+            DrugDTO drug = new DrugDTO();
+            drug.setId((long) i + 1);
+            drug.setName("Drug-" + (i + 1));
+            drug.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            drug.setDosageMg(DOSAGES[random.nextInt(DOSAGES.length)]);
+
+            List<String> sideEffects = new ArrayList<>(sideEffectsPerDrug);
+            for (int k = 0; k < sideEffectsPerDrug; k++) {
+                // skew towards common side effects so that overlaps actually happen
+                int id = (int) Math.min(VOCABULARY_SIZE - 1, Math.abs(random.nextGaussian()) * 60);
+                String name = vocabulary[id];
+                sideEffects.add(random.nextBoolean() ? name : name.toLowerCase());
+            }
+            drug.setSideEffects(sideEffects);
+            drugs.add(drug);
+        }
+        return drugs;
+    }
+
+    /**
+     * Returns a copy of the drug, as a fresh Feign deserialization would.
+     */
+    public static DrugDTO copy(DrugDTO drug) {
+        DrugDTO copy = new DrugDTO();
+        copy.setId(drug.getId());
+        copy.setName(drug.getName());
+        copy.setCategory(drug.getCategory());
+        copy.setDosageMg(drug.getDosageMg());
+        copy.setSideEffects(new ArrayList<>(drug.getSideEffects()));
+        copy.setVersion(drug.getVersion());
+        return copy;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.interactionservice.benchmark;
+
+import brave.Tracing;
+import com.example.interactionservice.dto.BatchInteractionResultDTO;
+import com.example.interactionservice.dto.DrugDTO;
+import com.example.interactionservice.dto.InteractionResultDTO;
+import com.example.interactionservice.service.AnalysisMessageRenderer;
+import com.example.interactionservice.service.DrugCache;
+import com.example.interactionservice.service.DrugRequestCollapser;
+import com.example.interactionservice.service.InteractionEngine;
+import com.example.interactionservice.service.InteractionMatrix;
+import com.example.interactionservice.service.RuleEngine;
+import com.example.interactionservice.service.SideEffectDictionary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialisation cost of interaction results as JSON vs Smile, for one
+ * analyze result and for an analyze-batch response of a 12-drug
+ * prescription (66 distinct pairs). Payloads come from the real engine, so
+ * messages have their usual length. Bytes on the wire, raw and gzipped,
+ * are printed once per trial.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    private static final int PRESCRIPTION_SIZE = 12;
+
+    @Param({"json", "smile"})
+    public String format;
+
+    private ObjectMapper mapper;
+    private InteractionResultDTO result;
+    private BatchInteractionResultDTO batch;
+    private byte[] resultBytes;
+    private byte[] batchBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = "smile".equals(format) ? new ObjectMapper(new SmileFactory()) : new ObjectMapper();
+
+        List<DrugDTO> drugs = SyntheticCatalogue.generate(1000, 16, 42);
+        SideEffectDictionary dictionary = new SideEffectDictionary();
+        RuleEngine ruleEngine = new RuleEngine(dictionary, new DefaultResourceLoader(), event -> { },
+                "classpath:interaction-rules.json", 0);
+        StubDrugClient drugClient = new StubDrugClient(drugs);
+        Tracing tracing = Tracing.newBuilder().build();
+        DrugRequestCollapser collapser = new DrugRequestCollapser(drugClient, tracing, new SimpleMeterRegistry(), 0, 100, 1);
+        DrugCache drugCache = new DrugCache(drugClient, collapser, event -> { }, drugs.size(), 600);
+        InteractionMatrix matrix = new InteractionMatrix(drugClient, drugCache, ruleEngine, new SimpleMeterRegistry(), false, 0, 0);
+        InteractionEngine engine = new InteractionEngine(drugCache, ruleEngine, matrix, dictionary,
+                new AnalysisMessageRenderer(dictionary), new SimpleMeterRegistry());
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < PRESCRIPTION_SIZE; i++) {
+            ids.add(drugs.get(i * 37).getId());
+        }
+        // detail=full, the larger of the two payloads
+        result = engine.analyze(ids.get(0), ids.get(1), Locale.ROOT);
+        batch = engine.analyzeBatch(ids, Locale.ROOT);
+        matrix.shutdown();
+        collapser.shutdown();
+        tracing.close();
+
+        resultBytes = mapper.writeValueAsBytes(result);
+        batchBytes = mapper.writeValueAsBytes(batch);
+        System.out.printf("%n%s: result %d bytes (%d gzipped), %d-drug batch %d bytes (%d gzipped)%n",
+                format, resultBytes.length, gzipped(resultBytes), PRESCRIPTION_SIZE, batchBytes.length, gzipped(batchBytes));
+    }
+
+    @Benchmark
+    public byte[] writeResult() throws IOException {
+        return mapper.writeValueAsBytes(result);
+    }
+
+    @Benchmark
+    public InteractionResultDTO readResult() throws IOException {
+        return mapper.readValue(resultBytes, InteractionResultDTO.class);
+    }
+
+    @Benchmark
+    public byte[] writeBatch() throws IOException {
+        return mapper.writeValueAsBytes(batch);
+    }
+
+    @Benchmark
+    public BatchInteractionResultDTO readBatch() throws IOException {
+        return mapper.readValue(batchBytes, BatchInteractionResultDTO.class);
+    }
+
+    private static int gzipped(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.size();
+    }
+}
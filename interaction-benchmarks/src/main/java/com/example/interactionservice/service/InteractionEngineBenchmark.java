@@ -0,0 +1,112 @@
+package com.example.interactionservice.service;
+
+import brave.Tracing;
+import com.example.interactionservice.benchmark.CatalogueState;
+import com.example.interactionservice.benchmark.StubDrugClient;
+import com.example.interactionservice.dto.DrugDTO;
+import com.example.interactionservice.dto.InteractionResultDTO;
+import com.example.interactionservice.model.InteractionRule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * analyze returns the structured result only (the default), analyzeFull also
+ * renders the message as with detail=full; renderMessage is the rendering
+ * on its own.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InteractionEngineBenchmark {
+
+    /**
+     * 0 makes nearly every lookup go to the (stubbed) DrugClient, 600 keeps
+     * the whole catalogue in DrugCache.
+     */
+    @Param({"0", "600"})
+    public long cacheTtlSeconds;
+
+    private InteractionEngine engine;
+    private AnalysisMessageRenderer renderer;
+    private InteractionMatrix matrix;
+    private DrugRequestCollapser collapser;
+    private Tracing tracing;
+    private List<InteractionRule>[] rules;
+    private int[] dosages;
+    private int counter;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp(CatalogueState catalogue) {
+        SideEffectDictionary dictionary = new SideEffectDictionary();
+        RuleEngine ruleEngine = new RuleEngine(dictionary, new DefaultResourceLoader(), event -> { },
+                "classpath:interaction-rules.json", 0);
+        StubDrugClient drugClient = new StubDrugClient(catalogue.drugs);
+        tracing = Tracing.newBuilder().build();
+        // window 0: a single benchmark thread gains nothing from waiting for other lookups
+        collapser = new DrugRequestCollapser(drugClient, tracing, new SimpleMeterRegistry(), 0, 100, 1);
+        DrugCache drugCache = new DrugCache(drugClient, collapser, event -> { }, catalogue.drugCount, cacheTtlSeconds);
+        matrix = new InteractionMatrix(drugClient, drugCache, ruleEngine, new SimpleMeterRegistry(), false, 0, 0);
+        renderer = new AnalysisMessageRenderer(dictionary);
+        engine = new InteractionEngine(drugCache, ruleEngine, matrix, dictionary, renderer, new SimpleMeterRegistry());
+
+        rules = new List[catalogue.first.length];
+        dosages = new int[catalogue.first.length];
+        for (int i = 0; i < rules.length; i++) {
+            rules[i] = ruleEngine.evaluateRules(catalogue.first[i], catalogue.second[i]);
+            dosages[i] = dosage(catalogue.first[i]) + dosage(catalogue.second[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        matrix.shutdown();
+        collapser.shutdown();
+        tracing.close();
+    }
+
+    @Benchmark
+    public String renderMessage(CatalogueState catalogue) {
+        int i = CatalogueState.pair(counter++);
+        return renderer.render(catalogue.first[i], catalogue.second[i], rules[i], dosages[i], Locale.ROOT);
+    }
+
+    @Benchmark
+    public InteractionResultDTO analyze(CatalogueState catalogue) {
+        int i = CatalogueState.pair(counter++);
+        DrugDTO a = catalogue.first[i];
+        DrugDTO b = catalogue.second[i];
+        return engine.analyze(a.getId(), b.getId());
+    }
+
+    @Benchmark
+    public InteractionResultDTO analyzeFull(CatalogueState catalogue) {
+        int i = CatalogueState.pair(counter++);
+        DrugDTO a = catalogue.first[i];
+        DrugDTO b = catalogue.second[i];
+        return engine.analyze(a.getId(), b.getId(), Locale.ROOT);
+    }
+
+    private static int dosage(DrugDTO drug) {
+        return drug.getDosageMg() == null ? 0 : drug.getDosageMg();
+    }
+}
@@ -1,10 +1,21 @@
 package com.example.interactionservice.client;
 
 import com.example.interactionservice.dto.DrugDTO;
+import com.example.interactionservice.dto.DrugPageDTO;
+import feign.FeignException;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 @FeignClient(name = "drug-database-service", url = "${drug.service.url:}")
 public interface DrugClient {
@@ -12,6 +23,49 @@ public interface DrugClient {
     @GetMapping("/drugs/{id}")
     DrugDTO getDrug(@PathVariable("id") Long id);
 
+    /**
+     * Conditional GET; drug-database-service answers 304 while the drug's
+     * ETag is still one of ifNoneMatch, which Feign raises as a FeignException.
+     */
+    @GetMapping("/drugs/{id}")
+    DrugDTO getDrug(@PathVariable("id") Long id, @RequestHeader(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch);
+
+    /**
+     * Revalidates a cached drug: the drug as it is now if it changed since
+     * the given version, or null if it did not.
+     */
+    default DrugDTO getDrugIfChanged(Long id, Long version) {
+        try {
+            return getDrug(id, "W/\"" + version + "\"");
+        } catch (FeignException ex) {
+            if (ex.status() == HttpStatus.NOT_MODIFIED.value()) return null;
+            throw ex;
+        }
+    }
+
+    /**
+     * The drugs with the given ids, in id order; unknown ids are left out.
+     * Single lookups go through DrugRequestCollapser, which merges them into
+     * these calls.
+     */
+    @PostMapping("/drugs/batch")
+    List<DrugDTO> getDrugs(@RequestBody Collection<Long> ids);
+
     @GetMapping("/drugs")
     List<DrugDTO> getAllDrugs();
+
+    @GetMapping("/drugs/page")
+    DrugPageDTO getDrugPage(@RequestParam("after") Long after, @RequestParam("size") int size);
+
+    /**
+     * Walks the whole catalogue page by page instead of loading it in one response.
+     */
+    default void forEachDrug(int pageSize, Consumer<DrugDTO> action) {
+        Long after = 0L;
+        while (after != null) {
+            DrugPageDTO page = getDrugPage(after, pageSize);
+            page.getItems().forEach(action);
+            after = page.getNextCursor();
+        }
+    }
 }
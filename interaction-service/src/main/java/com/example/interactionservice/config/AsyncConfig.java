@@ -0,0 +1,43 @@
+package com.example.interactionservice.config;
+
+import brave.Tracing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Completes the drug lookups of /interactions/analyze-async, and runs
+     * the analysis that follows, so that Tomcat threads are released while
+     * drug-database-service answers. When the queue is full new work is
+     * rejected and the request fails with a 503: running it on the
+     * completing thread instead would block the collapser's dispatcher or a
+     * Tomcat thread. Lookups run in the trace of the request that started
+     * them.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService drugFetchExecutor(
+            Tracing tracing,
+            @Value("${interaction.async.pool-size:32}") int poolSize,
+            @Value("${interaction.async.queue-capacity:1000}") int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize,
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "drug-fetch-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return tracing.currentTraceContext().executorService(executor);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.interactionservice.config;
+
+import brave.handler.SpanHandler;
+import com.example.common.tracing.LogSpanHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tracing is Spring Cloud Sleuth with Brave: incoming requests join the
+ * caller's trace from its B3 headers, and the Feign calls to
+ * drug-database-service made while analyzing get child spans, so a cache
+ * miss shows up as its own call. AsyncConfig carries the trace onto the
+ * drug-fetch threads of /interactions/analyze-async.
+ *
+ * Sampled spans are written to the "tracing" logger, one line per span;
+ * see prescription-service for the sampling setup.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(value = "tracing.log.enabled", matchIfMissing = true)
+    public SpanHandler logSpanHandler() {
+        return new LogSpanHandler();
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.interactionservice.config;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Serves Smile (binary JSON, application/x-jackson-smile) to clients that
+ * ask for it in Accept. The converter sits after the JSON one, so JSON stays
+ * the default for wildcard Accept headers and for browsers.
+ */
+@Configuration
+public class WireFormatConfig {
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -1,18 +1,26 @@
 package com.example.interactionservice.controller;
 
 import com.example.interactionservice.service.ChatService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/interactions")   // <--- base path
 public class ChatController {
 
     private final ChatService chatService;
+    private final long streamTimeoutMs;
 
-    public ChatController(ChatService chatService) {
+    public ChatController(ChatService chatService,
+                          @Value("${groq.stream-timeout-ms:120000}") long streamTimeoutMs) {
         this.chatService = chatService;
+        this.streamTimeoutMs = streamTimeoutMs;
     }
 
     @PostMapping("/chat")          // <--- full path: /interactions/chat
@@ -65,6 +73,64 @@ public class ChatController {
         }
     }
 
+    /**
+     * Server-sent events version of /chat: one "token" event per chunk of the
+     * reply as the model generates it, then "done". Failures end the stream
+     * with an "error" event. Each event's data is a ChatResponse. When the
+     * client disconnects the upstream request is cancelled.
+     */
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter chatStream(@RequestBody ChatRequest request) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        if (request.getMessage() == null || request.getMessage().trim().isEmpty()) {
+            sendError(emitter, "Please provide a message.");
+            return emitter;
+        }
+
+        ChatService.Cancellable stream = chatService.streamDrugInteraction(request.getMessage().trim(),
+                new ChatService.TokenListener() {
+                    @Override
+                    public void onToken(String token) throws IOException {
+                        emitter.send(SseEmitter.event().name("token")
+                                .data(new ChatResponse(token), MediaType.APPLICATION_JSON));
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        try {
+                            emitter.send(SseEmitter.event().name("done")
+                                    .data(new ChatResponse(""), MediaType.APPLICATION_JSON));
+                            emitter.complete();
+                        } catch (IOException | IllegalStateException e) {
+                            emitter.completeWithError(e);
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable error) {
+                        String message = error.getMessage();
+                        sendError(emitter, message != null && message.contains("429")
+                                ? "The AI service is currently unavailable due to quota limits. " +
+                                        "Please try again later or contact support."
+                                : "The AI service is temporarily unavailable. Please try again later.");
+                    }
+                });
+        emitter.onCompletion(stream::cancel);
+        emitter.onTimeout(stream::cancel);
+        emitter.onError(e -> stream.cancel());
+        return emitter;
+    }
+
+    private static void sendError(SseEmitter emitter, String message) {
+        try {
+            emitter.send(SseEmitter.event().name("error")
+                    .data(new ChatResponse(message), MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
     // ---- DTOs ----
 
     public static class ChatRequest {
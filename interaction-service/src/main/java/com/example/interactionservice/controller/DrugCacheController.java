@@ -0,0 +1,39 @@
+package com.example.interactionservice.controller;
+
+import com.example.interactionservice.service.DrugCache;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Called by drug-database-service whenever a drug is updated or deleted.
+ */
+@RestController
+@RequestMapping("/interactions/drug-cache")
+public class DrugCacheController {
+
+    private final DrugCache drugCache;
+
+    public DrugCacheController(DrugCache drugCache) {
+        this.drugCache = drugCache;
+    }
+
+    @DeleteMapping("/{id}")
+    public String invalidate(@PathVariable Long id) {
+        drugCache.invalidate(id);
+        return "Invalidated drug " + id;
+    }
+
+    @DeleteMapping
+    public String invalidateAll() {
+        drugCache.invalidateAll();
+        return "Drug cache cleared";
+    }
+
+    @GetMapping("/size")
+    public int size() {
+        return drugCache.size();
+    }
+}
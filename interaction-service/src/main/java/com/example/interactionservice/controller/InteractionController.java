@@ -1,28 +1,88 @@
 package com.example.interactionservice.controller;
 
+import com.example.interactionservice.dto.BatchInteractionResultDTO;
 import com.example.interactionservice.dto.InteractionResultDTO;
 import com.example.interactionservice.service.InteractionEngine;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
 public class InteractionController {
 
     private final InteractionEngine engine;
+    private final ExecutorService drugFetchExecutor;
 
-    public InteractionController(InteractionEngine engine) {
+    public InteractionController(InteractionEngine engine,
+                                 @Qualifier("drugFetchExecutor") ExecutorService drugFetchExecutor) {
         this.engine = engine;
+        this.drugFetchExecutor = drugFetchExecutor;
     }
 
     /**
      * Example: GET /interactions/analyze?drugA=1&drugB=2
+     *
+     * Returns the structured result (risk level, score, rule codes, ...).
+     * Add detail=full for the human-readable message as well, rendered in the
+     * language of the Accept-Language header.
      */
     @GetMapping("/interactions/analyze")
     public InteractionResultDTO analyze(
             @RequestParam("drugA") Long drugA,
-            @RequestParam("drugB") Long drugB
+            @RequestParam("drugB") Long drugB,
+            @RequestParam(value = "detail", required = false) String detail,
+            Locale locale
+    ) {
+        return engine.analyze(drugA, drugB, messageLocale(detail, locale));
+    }
+
+    /**
+     * Same result as /interactions/analyze, but the request thread is released
+     * while the drugs are fetched (concurrently) from drug-database-service.
+     * Answers 503 when the drug-fetch executor is saturated.
+     * Example: GET /interactions/analyze-async?drugA=1&drugB=2
+     */
+    @GetMapping("/interactions/analyze-async")
+    public CompletableFuture<InteractionResultDTO> analyzeAsync(
+            @RequestParam("drugA") Long drugA,
+            @RequestParam("drugB") Long drugB,
+            @RequestParam(value = "detail", required = false) String detail,
+            Locale locale
+    ) {
+        return engine.analyzeAsync(drugA, drugB, drugFetchExecutor, messageLocale(detail, locale));
+    }
+
+    /**
+     * Example: POST /interactions/analyze-batch with body [1, 2, 3]
+     * (optionally ?detail=full)
+     */
+    @PostMapping("/interactions/analyze-batch")
+    public BatchInteractionResultDTO analyzeBatch(
+            @RequestBody List<Long> drugIds,
+            @RequestParam(value = "detail", required = false) String detail,
+            Locale locale
     ) {
-        return engine.analyze(drugA, drugB);
+        return engine.analyzeBatch(drugIds, messageLocale(detail, locale));
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> saturated(RejectedExecutionException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Too many analyses in progress, try again later");
+    }
+
+    private static Locale messageLocale(String detail, Locale locale) {
+        return "full".equalsIgnoreCase(detail) ? locale : null;
     }
 }
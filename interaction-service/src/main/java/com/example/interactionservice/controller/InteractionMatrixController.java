@@ -0,0 +1,30 @@
+package com.example.interactionservice.controller;
+
+import com.example.interactionservice.dto.MatrixStatsDTO;
+import com.example.interactionservice.service.InteractionMatrix;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/interactions/matrix")
+public class InteractionMatrixController {
+
+    private final InteractionMatrix matrix;
+
+    public InteractionMatrixController(InteractionMatrix matrix) {
+        this.matrix = matrix;
+    }
+
+    @GetMapping("/stats")
+    public MatrixStatsDTO stats() {
+        return matrix.getStats();
+    }
+
+    @PostMapping("/rebuild")
+    public String rebuild() {
+        matrix.requestRebuild();
+        return "Interaction matrix rebuild requested";
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.interactionservice.controller;
+
+import com.example.interactionservice.model.RuleDefinition;
+import com.example.interactionservice.service.RuleEngine;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/interactions/rules")
+public class RuleController {
+
+    private final RuleEngine ruleEngine;
+
+    public RuleController(RuleEngine ruleEngine) {
+        this.ruleEngine = ruleEngine;
+    }
+
+    @GetMapping
+    public List<RuleDefinition> rules() {
+        return ruleEngine.getDefinitions();
+    }
+
+    /**
+     * Re-reads the rules file. An invalid file is rejected and the current rules stay active.
+     */
+    @PostMapping("/reload")
+    public ResponseEntity<String> reload() {
+        try {
+            int count = ruleEngine.reload();
+            return ResponseEntity.ok("Loaded " + count + " interaction rules");
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.interactionservice.dto;
+
+import java.util.List;
+
+public class BatchInteractionResultDTO {
+    private List<Long> drugIds;
+    // results[i][j] holds the analysis of drugIds[i] vs drugIds[j] (drugA is drugIds[i]); the diagonal is null
+    private List<List<InteractionResultDTO>> results;
+
+    public BatchInteractionResultDTO() {}
+
+    public List<Long> getDrugIds() { return drugIds;}
+    public void setDrugIds(List<Long> drugIds) { this.drugIds = drugIds;}
+    public List<List<InteractionResultDTO>> getResults() { return results;}
+    public void setResults(List<List<InteractionResultDTO>> results) { this.results = results;}
+}
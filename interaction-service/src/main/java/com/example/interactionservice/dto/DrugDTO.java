@@ -1,5 +1,8 @@
 package com.example.interactionservice.dto;
 
+import com.example.interactionservice.model.SideEffectSet;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.util.List;
 
 public class DrugDTO {
@@ -8,6 +11,10 @@ public class DrugDTO {
     private String category;
     private Integer dosageMg;
     private List<String> sideEffects;
+    // catalogue version of the drug's last change; W/"<version>" is its ETag
+    private Long version;
+    // encoded form of sideEffects, filled in lazily by SideEffectDictionary
+    private transient SideEffectSet sideEffectSet;
 
     public DrugDTO() {}
 
@@ -20,5 +27,11 @@ public class DrugDTO {
     public Integer getDosageMg() { return dosageMg;}
     public void setDosageMg(Integer dosageMg) { this.dosageMg = dosageMg;}
     public List<String> getSideEffects() { return sideEffects;}
-    public void setSideEffects(List<String> sideEffects) { this.sideEffects = sideEffects;}
+    public void setSideEffects(List<String> sideEffects) { this.sideEffects = sideEffects; this.sideEffectSet = null;}
+    public Long getVersion() { return version;}
+    public void setVersion(Long version) { this.version = version;}
+    @JsonIgnore
+    public SideEffectSet getSideEffectSet() { return sideEffectSet;}
+    @JsonIgnore
+    public void setSideEffectSet(SideEffectSet sideEffectSet) { this.sideEffectSet = sideEffectSet;}
 }
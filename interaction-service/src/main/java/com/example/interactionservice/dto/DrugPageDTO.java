@@ -0,0 +1,15 @@
+package com.example.interactionservice.dto;
+
+import java.util.List;
+
+public class DrugPageDTO {
+    private List<DrugDTO> items;
+    private Long nextCursor;
+
+    public DrugPageDTO() {}
+
+    public List<DrugDTO> getItems() { return items;}
+    public void setItems(List<DrugDTO> items) { this.items = items;}
+    public Long getNextCursor() { return nextCursor;}
+    public void setNextCursor(Long nextCursor) { this.nextCursor = nextCursor;}
+}
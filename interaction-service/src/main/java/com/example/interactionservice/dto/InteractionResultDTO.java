@@ -1,11 +1,22 @@
 package com.example.interactionservice.dto;
 
+import java.util.List;
+
 public class InteractionResultDTO {
     private String drugA;
     private String drugB;
     private RiskLevel riskLevel;
     private int severityScore;
+    // Human-readable analysis, only rendered for detail=full
     private String message;
+    // Codes of the rules that fired
+    private List<String> ruleCodes;
+    // true when a drug could not be fetched, so the result is a placeholder
+    private boolean fallback;
+    // Sum of both drugs' dosages
+    private Integer combinedDosageMg;
+    // Number of side effects both drugs share; null if either drug has no side-effect data
+    private Integer sharedSideEffects;
 
     public InteractionResultDTO() {}
 
@@ -19,4 +30,12 @@ public class InteractionResultDTO {
     public void setSeverityScore(int severityScore) { this.severityScore = severityScore;}
     public String getMessage() { return message;}
     public void setMessage(String message) { this.message = message;}
+    public List<String> getRuleCodes() { return ruleCodes;}
+    public void setRuleCodes(List<String> ruleCodes) { this.ruleCodes = ruleCodes;}
+    public boolean isFallback() { return fallback;}
+    public void setFallback(boolean fallback) { this.fallback = fallback;}
+    public Integer getCombinedDosageMg() { return combinedDosageMg;}
+    public void setCombinedDosageMg(Integer combinedDosageMg) { this.combinedDosageMg = combinedDosageMg;}
+    public Integer getSharedSideEffects() { return sharedSideEffects;}
+    public void setSharedSideEffects(Integer sharedSideEffects) { this.sharedSideEffects = sharedSideEffects;}
 }
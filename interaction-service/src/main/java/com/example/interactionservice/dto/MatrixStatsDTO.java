@@ -0,0 +1,22 @@
+package com.example.interactionservice.dto;
+
+public class MatrixStatsDTO {
+    private boolean enabled;
+    private boolean ready;
+    private int drugCount;
+    private long lastBuildMillis;
+    private long memoryBytes;
+
+    public MatrixStatsDTO() {}
+
+    public boolean isEnabled() { return enabled;}
+    public void setEnabled(boolean enabled) { this.enabled = enabled;}
+    public boolean isReady() { return ready;}
+    public void setReady(boolean ready) { this.ready = ready;}
+    public int getDrugCount() { return drugCount;}
+    public void setDrugCount(int drugCount) { this.drugCount = drugCount;}
+    public long getLastBuildMillis() { return lastBuildMillis;}
+    public void setLastBuildMillis(long lastBuildMillis) { this.lastBuildMillis = lastBuildMillis;}
+    public long getMemoryBytes() { return memoryBytes;}
+    public void setMemoryBytes(long memoryBytes) { this.memoryBytes = memoryBytes;}
+}
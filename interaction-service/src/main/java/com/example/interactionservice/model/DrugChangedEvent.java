@@ -0,0 +1,15 @@
+package com.example.interactionservice.model;
+
+/**
+ * Published when drug-database-service reports that a drug changed.
+ * A null drugId means the whole catalogue may have changed.
+ */
+public class DrugChangedEvent {
+    private final Long drugId;
+
+    public DrugChangedEvent(Long drugId) {
+        this.drugId = drugId;
+    }
+
+    public Long getDrugId() { return drugId;}
+}
@@ -1,6 +1,7 @@
 package com.example.interactionservice.model;
 
 public class InteractionRule {
+    private String code;
     private ConflictType type;
     private int severity;
     private String description;
@@ -8,11 +9,18 @@ public class InteractionRule {
     public InteractionRule() {}
 
     public InteractionRule(ConflictType type, int severity, String description) {
+        this(type.name(), type, severity, description);
+    }
+
+    public InteractionRule(String code, ConflictType type, int severity, String description) {
+        this.code = code;
         this.type = type;
         this.severity = severity;
         this.description = description;
     }
 
+    public String getCode() { return code;}
+    public void setCode(String code) { this.code = code;}
     public ConflictType getType() { return type;}
     public void setType(ConflictType type) { this.type = type;}
     public int getSeverity() { return severity;}
@@ -0,0 +1,46 @@
+package com.example.interactionservice.model;
+
+import java.util.List;
+
+/**
+ * One interaction rule as written in the rules file (see interaction-rules.json).
+ *
+ * Rules that share a group are mutually exclusive: only the first matching
+ * rule of a group, in file order, fires. The description may reference
+ * {drugA}, {drugB}, {category}, {overlap} and {totalDosage}.
+ */
+public class RuleDefinition {
+    private String code;
+    private ConflictType type;
+    private RulePredicate predicate;
+    private int severity;
+    private Integer min;
+    private Integer max;
+    private List<String> categories;
+    private List<String> drugs;
+    private String group;
+    private String description;
+
+    public RuleDefinition() {}
+
+    public String getCode() { return code;}
+    public void setCode(String code) { this.code = code;}
+    public ConflictType getType() { return type;}
+    public void setType(ConflictType type) { this.type = type;}
+    public RulePredicate getPredicate() { return predicate;}
+    public void setPredicate(RulePredicate predicate) { this.predicate = predicate;}
+    public int getSeverity() { return severity;}
+    public void setSeverity(int severity) { this.severity = severity;}
+    public Integer getMin() { return min;}
+    public void setMin(Integer min) { this.min = min;}
+    public Integer getMax() { return max;}
+    public void setMax(Integer max) { this.max = max;}
+    public List<String> getCategories() { return categories;}
+    public void setCategories(List<String> categories) { this.categories = categories;}
+    public List<String> getDrugs() { return drugs;}
+    public void setDrugs(List<String> drugs) { this.drugs = drugs;}
+    public String getGroup() { return group;}
+    public void setGroup(String group) { this.group = group;}
+    public String getDescription() { return description;}
+    public void setDescription(String description) { this.description = description;}
+}
@@ -0,0 +1,17 @@
+package com.example.interactionservice.model;
+
+/**
+ * Conditions a RuleDefinition can test for a pair of drugs.
+ */
+public enum RulePredicate {
+    /** Both drugs have the same category (case-insensitive). */
+    SAME_CATEGORY,
+    /** Number of shared side effects is within [min, max]. */
+    SIDE_EFFECT_OVERLAP,
+    /** Sum of both dosages in mg is within [min, max]. */
+    COMBINED_DOSAGE,
+    /** One drug is in categories[0] and the other in categories[1]. */
+    CATEGORY_PAIR,
+    /** One drug is named drugs[0] and the other drugs[1]. */
+    DRUG_PAIR
+}
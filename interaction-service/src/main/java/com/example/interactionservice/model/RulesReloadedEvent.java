@@ -0,0 +1,14 @@
+package com.example.interactionservice.model;
+
+/**
+ * Published after RuleEngine switched to a newly loaded set of rules.
+ */
+public class RulesReloadedEvent {
+    private final int ruleCount;
+
+    public RulesReloadedEvent(int ruleCount) {
+        this.ruleCount = ruleCount;
+    }
+
+    public int getRuleCount() { return ruleCount;}
+}
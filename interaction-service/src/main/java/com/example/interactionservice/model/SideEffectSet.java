@@ -0,0 +1,65 @@
+package com.example.interactionservice.model;
+
+import java.util.function.IntConsumer;
+
+/**
+ * A drug's side effects as a bit set over SideEffectDictionary ids, so that
+ * overlap between two drugs is a word-wise AND plus popcount.
+ */
+public final class SideEffectSet {
+
+    public static final SideEffectSet EMPTY = new SideEffectSet(new long[0]);
+
+    private final long[] words;
+
+    public SideEffectSet(long[] words) {
+        this.words = words;
+    }
+
+    public static SideEffectSet of(int... ids) {
+        int max = -1;
+        for (int id : ids) max = Math.max(max, id);
+        long[] words = new long[(max >> 6) + 1];
+        for (int id : ids) {
+            words[id >> 6] |= 1L << id;
+        }
+        return new SideEffectSet(words);
+    }
+
+    public boolean isEmpty() {
+        for (long w : words) {
+            if (w != 0) return false;
+        }
+        return true;
+    }
+
+    public int size() {
+        int count = 0;
+        for (long w : words) count += Long.bitCount(w);
+        return count;
+    }
+
+    public int overlapCount(SideEffectSet other) {
+        int n = Math.min(words.length, other.words.length);
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            count += Long.bitCount(words[i] & other.words[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Calls the action with every id present in both sets, in ascending order.
+     */
+    public void forEachOverlap(SideEffectSet other, IntConsumer action) {
+        int n = Math.min(words.length, other.words.length);
+        for (int i = 0; i < n; i++) {
+            long w = words[i] & other.words[i];
+            while (w != 0) {
+                int bit = Long.numberOfTrailingZeros(w);
+                action.accept((i << 6) + bit);
+                w &= w - 1;
+            }
+        }
+    }
+}
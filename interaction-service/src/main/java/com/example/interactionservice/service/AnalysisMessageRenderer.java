@@ -0,0 +1,258 @@
+package com.example.interactionservice.service;
+
+import com.example.interactionservice.dto.DrugDTO;
+import com.example.interactionservice.model.InteractionRule;
+import com.example.interactionservice.model.SideEffectSet;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders the human-readable analysis text for detail=full requests.
+ *
+ * The text comes from the messages/analysis resource bundle, whose entries
+ * are split into literals and argument slots once per locale. Rendering
+ * appends straight into a per-thread buffer, so the only string allocated
+ * is the returned message.
+ */
+@Component
+public class AnalysisMessageRenderer {
+
+    private static final String BUNDLE = "messages/analysis";
+    private static final ResourceBundle.Control BASE_FALLBACK =
+            ResourceBundle.Control.getNoFallbackControl(ResourceBundle.Control.FORMAT_PROPERTIES);
+
+    // requested locales remembered beyond this are resolved through ResourceBundle each time
+    private static final int MAX_LOCALES = 32;
+    private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    private final SideEffectDictionary dictionary;
+    private final Map<Locale, Templates> byLocale = new ConcurrentHashMap<>();
+
+    public AnalysisMessageRenderer(SideEffectDictionary dictionary) {
+        this.dictionary = dictionary;
+        templates(Locale.ROOT); // fail at startup on a broken bundle
+    }
+
+    public String render(DrugDTO d1, DrugDTO d2, List<InteractionRule> rules, int combinedDosageMg, Locale locale) {
+        Templates t = templates(locale);
+        StringBuilder out = buffer();
+
+        t.header.appendTo(out);
+        appendDrug(out, t, "A", d1);
+        appendDrug(out, t, "B", d2);
+
+        t.dosage.appendTo(out, combinedDosageMg);
+        if (combinedDosageMg > 1500) {
+            t.dosageVeryHigh.appendTo(out);
+        } else if (combinedDosageMg > 1000) {
+            t.dosageHigh.appendTo(out);
+        } else {
+            t.dosageAcceptable.appendTo(out);
+        }
+
+        t.sideEffects.appendTo(out);
+        appendSideEffects(out, t, d1, d2);
+
+        if (rules.isEmpty()) {
+            t.safe.appendTo(out);
+        } else {
+            t.risks.appendTo(out);
+            for (InteractionRule rule : rules) {
+                t.risk.appendTo(out, rule.getDescription());
+            }
+            t.recommendation.appendTo(out);
+        }
+        return out.toString();
+    }
+
+    private static void appendDrug(StringBuilder out, Templates t, String label, DrugDTO drug) {
+        t.drug.appendTo(out, label, drug.getName());
+        if (drug.getCategory() != null) {
+            t.drugCategory.appendTo(out, drug.getCategory());
+        }
+        if (drug.getDosageMg() != null) {
+            t.drugDosage.appendTo(out, drug.getDosageMg());
+        }
+    }
+
+    private void appendSideEffects(StringBuilder out, Templates t, DrugDTO d1, DrugDTO d2) {
+        SideEffectSet s1 = dictionary.sideEffectsOf(d1);
+        SideEffectSet s2 = dictionary.sideEffectsOf(d2);
+        if (s1 == null || s2 == null) {
+            t.sideEffectsUnknown.appendTo(out);
+            return;
+        }
+
+        int common = s1.overlapCount(s2);
+        if (common == 0) {
+            t.sideEffectsNone.appendTo(out);
+            return;
+        }
+        Fragment names = buf -> {
+            int start = buf.length();
+            s1.forEachOverlap(s2, id -> {
+                if (buf.length() > start) t.sideEffectSeparator.appendTo(buf);
+                buf.append(dictionary.name(id));
+            });
+        };
+        if (common == 1) {
+            t.sideEffectsSingle.appendTo(out, names);
+        } else {
+            t.sideEffectsMultiple.appendTo(out, common, names);
+        }
+    }
+
+    private Templates templates(Locale locale) {
+        Templates t = byLocale.get(locale);
+        if (t != null) return t;
+
+        ResourceBundle bundle = ResourceBundle.getBundle(BUNDLE, locale, BASE_FALLBACK);
+        t = byLocale.computeIfAbsent(bundle.getLocale(), l -> new Templates(bundle));
+        if (byLocale.size() < MAX_LOCALES) {
+            byLocale.putIfAbsent(locale, t);
+        }
+        return t;
+    }
+
+    private static StringBuilder buffer() {
+        StringBuilder out = BUFFER.get();
+        if (out.capacity() > MAX_RETAINED_CAPACITY) {
+            // one huge message should not pin its buffer to the thread forever
+            out = new StringBuilder(1024);
+            BUFFER.set(out);
+        }
+        out.setLength(0);
+        return out;
+    }
+
+    /**
+     * An argument that writes itself into the buffer instead of being
+     * turned into a string first.
+     */
+    private interface Fragment {
+        void appendTo(StringBuilder out);
+    }
+
+    /**
+     * The compiled entries of one locale's bundle.
+     */
+    private static final class Templates {
+        final Template header;
+        final Template drug;
+        final Template drugCategory;
+        final Template drugDosage;
+        final Template dosage;
+        final Template dosageVeryHigh;
+        final Template dosageHigh;
+        final Template dosageAcceptable;
+        final Template sideEffects;
+        final Template sideEffectsUnknown;
+        final Template sideEffectsNone;
+        final Template sideEffectsSingle;
+        final Template sideEffectsMultiple;
+        final Template sideEffectSeparator;
+        final Template safe;
+        final Template risks;
+        final Template risk;
+        final Template recommendation;
+
+        Templates(ResourceBundle bundle) {
+            header = Template.parse(bundle, "header");
+            drug = Template.parse(bundle, "drug");
+            drugCategory = Template.parse(bundle, "drug.category");
+            drugDosage = Template.parse(bundle, "drug.dosage");
+            dosage = Template.parse(bundle, "dosage");
+            dosageVeryHigh = Template.parse(bundle, "dosage.veryHigh");
+            dosageHigh = Template.parse(bundle, "dosage.high");
+            dosageAcceptable = Template.parse(bundle, "dosage.acceptable");
+            sideEffects = Template.parse(bundle, "sideEffects");
+            sideEffectsUnknown = Template.parse(bundle, "sideEffects.unknown");
+            sideEffectsNone = Template.parse(bundle, "sideEffects.none");
+            sideEffectsSingle = Template.parse(bundle, "sideEffects.single");
+            sideEffectsMultiple = Template.parse(bundle, "sideEffects.multiple");
+            sideEffectSeparator = Template.parse(bundle, "sideEffects.separator");
+            safe = Template.parse(bundle, "safe");
+            risks = Template.parse(bundle, "risks");
+            risk = Template.parse(bundle, "risks.item");
+            recommendation = Template.parse(bundle, "risks.recommendation");
+        }
+    }
+
+    /**
+     * A bundle entry split into literal text and {0}/{1} argument slots.
+     */
+    private static final class Template {
+        private final String[] literals;  // literals.length == arguments.length + 1
+        private final int[] arguments;    // 0 or 1
+
+        private Template(String[] literals, int[] arguments) {
+            this.literals = literals;
+            this.arguments = arguments;
+        }
+
+        static Template parse(ResourceBundle bundle, String key) {
+            String text = bundle.getString(key);
+            List<String> literals = new ArrayList<>();
+            List<Integer> arguments = new ArrayList<>();
+            int pos = 0;
+            while (true) {
+                int open = text.indexOf('{', pos);
+                if (open < 0) break;
+                int close = text.indexOf('}', open);
+                if (close < 0) break;
+                String argument = text.substring(open + 1, close);
+                if (!argument.equals("0") && !argument.equals("1")) {
+                    throw new IllegalArgumentException("Message " + key + ": unknown argument {" + argument + "}");
+                }
+                literals.add(text.substring(pos, open));
+                arguments.add(argument.charAt(0) - '0');
+                pos = close + 1;
+            }
+            literals.add(text.substring(pos));
+            return new Template(literals.toArray(new String[0]),
+                    arguments.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        void appendTo(StringBuilder out) {
+            appendTo(out, null, null);
+        }
+
+        void appendTo(StringBuilder out, int arg0) {
+            for (int i = 0; i < arguments.length; i++) {
+                out.append(literals[i]);
+                if (arguments[i] == 0) out.append(arg0);
+            }
+            out.append(literals[arguments.length]);
+        }
+
+        void appendTo(StringBuilder out, Object arg0) {
+            appendTo(out, arg0, null);
+        }
+
+        void appendTo(StringBuilder out, Object arg0, Object arg1) {
+            for (int i = 0; i < arguments.length; i++) {
+                out.append(literals[i]);
+                append(out, arguments[i] == 0 ? arg0 : arg1);
+            }
+            out.append(literals[arguments.length]);
+        }
+
+        private static void append(StringBuilder out, Object arg) {
+            if (arg instanceof Fragment) {
+                ((Fragment) arg).appendTo(out);
+            } else if (arg instanceof Integer) {
+                out.append(((Integer) arg).intValue());
+            } else {
+                out.append(arg);
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.interactionservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Recent chat replies keyed by the normalised prompt, so the same question
+ * asked with different case, spacing or punctuation costs one LLM call.
+ * Entries are evicted least-recently-used once the cache is full and expire
+ * after a TTL. Concurrent requests for a prompt that is not cached share one
+ * upstream call; failures are passed to every waiter and never stored.
+ */
+@Component
+public class ChatResponseCache {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final int maxPromptLength;
+
+    // access-ordered, guarded by "this"
+    private final LinkedHashMap<String, Entry> entries;
+
+    // upstream calls that have not finished yet, by normalised prompt
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+
+    public ChatResponseCache(MeterRegistry meterRegistry,
+                             @Value("${chat.cache.max-size:1000}") int maxSize,
+                             @Value("${chat.cache.ttl-seconds:3600}") long ttlSeconds,
+                             @Value("${chat.cache.max-prompt-length:2000}") int maxPromptLength) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxPromptLength = maxPromptLength;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > ChatResponseCache.this.maxSize;
+            }
+        };
+
+        this.hits = Counter.builder("interaction.chat.cache.requests").tag("result", "hit")
+                .description("Chat response cache lookups").register(meterRegistry);
+        this.misses = Counter.builder("interaction.chat.cache.requests").tag("result", "miss")
+                .description("Chat response cache lookups").register(meterRegistry);
+        this.coalesced = Counter.builder("interaction.chat.cache.requests").tag("result", "coalesced")
+                .description("Chat response cache lookups").register(meterRegistry);
+        Gauge.builder("interaction.chat.cache.size", this, ChatResponseCache::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached reply for the prompt, or calls the loader once for
+     * all concurrent askers. Prompts longer than chat.cache.max-prompt-length
+     * always go to the loader.
+     */
+    public String get(String prompt, Supplier<String> loader) {
+        if (prompt.length() > maxPromptLength) return loader.get();
+
+        String key = normalize(prompt);
+        String cached = getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        CompletableFuture<String> call = new CompletableFuture<>();
+        CompletableFuture<String> running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+
+        misses.increment();
+        try {
+            String reply = loader.get();
+            if (reply != null) {
+                synchronized (this) {
+                    entries.put(key, new Entry(reply));
+                }
+            }
+            call.complete(reply);
+            return reply;
+        } catch (RuntimeException | Error ex) {
+            call.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Lower case, compatibility-normalised, with every run of whitespace and
+     * punctuation collapsed to one space: "Can I take Aspirin with
+     * ibuprofen?" and "can i take aspirin with ibuprofen" are the same key.
+     */
+    static String normalize(String prompt) {
+        String text = Normalizer.normalize(prompt, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder key = new StringBuilder(text.length());
+        boolean gap = false;
+        for (int i = 0; i < text.length(); ) {
+            int c = text.codePointAt(i);
+            i += Character.charCount(c);
+            if (Character.isLetterOrDigit(c)) {
+                if (gap && key.length() > 0) key.append(' ');
+                key.appendCodePoint(c);
+                gap = false;
+            } else {
+                gap = true;
+            }
+        }
+        return key.toString();
+    }
+
+    private String getIfPresent(String key) {
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry == null) return null;
+            if (entry.isExpired(ttlMillis)) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.reply;
+        }
+    }
+
+    private static String await(CompletableFuture<String> running) {
+        try {
+            return running.join();
+        } catch (CompletionException ex) {
+            // rethrow the loader's own exception so callers see e.g. the 429
+            if (ex.getCause() instanceof RuntimeException) throw (RuntimeException) ex.getCause();
+            throw ex;
+        }
+    }
+
+    private static final class Entry {
+        private final String reply;
+        private final long loadedAt = System.currentTimeMillis();
+
+        private Entry(String reply) {
+            this.reply = reply;
+        }
+
+        private boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
+    }
+}
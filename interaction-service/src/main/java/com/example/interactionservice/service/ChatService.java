@@ -1,54 +1,113 @@
 package com.example.interactionservice.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.List;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 public class ChatService {
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private static final Logger log = LoggerFactory.getLogger(ChatService.class);
+
+    private static final String SYSTEM_PROMPT =
+            "You are a medical AI assistant specialized in drug interaction analysis.";
+
+    private final RestTemplate restTemplate;
+    private final HttpClient streamClient;
+    private final ObjectMapper objectMapper;
+    private final ChatResponseCache cache;
     private final String apiKey;
     private final String baseUrl;
 
     public ChatService(
+            RestTemplateBuilder restTemplateBuilder,
+            ObjectMapper objectMapper,
+            ChatResponseCache cache,
             @Value("${groq.api.key}") String apiKey,
-            @Value("${groq.base-url:https://api.groq.com/openai/v1}") String baseUrl
+            @Value("${groq.base-url:https://api.groq.com/openai/v1}") String baseUrl,
+            @Value("${groq.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${groq.read-timeout-ms:30000}") long readTimeoutMs
     ) {
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .setReadTimeout(Duration.ofMillis(readTimeoutMs))
+                .build();
+        this.streamClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        this.objectMapper = objectMapper;
+        this.cache = cache;
         this.apiKey = apiKey;
         this.baseUrl = baseUrl;
     }
 
+    /**
+     * Answers from the response cache when the same question (after
+     * normalisation) was asked recently; otherwise asks the LLM, once for
+     * all concurrent identical questions.
+     */
     public String analyzeDrugInteraction(String userMessage) {
+        return cache.get(userMessage, () -> complete(userMessage));
+    }
 
-        String endpoint = baseUrl + "/chat/completions";
+    /**
+     * Asks the LLM with stream=true and hands each content token to the
+     * listener as it arrives. The response body is read one line at a time,
+     * and the next line is only requested once the listener has taken the
+     * previous token, so a slow consumer slows the upstream read instead of
+     * buffering. Streamed replies bypass the response cache.
+     *
+     * The listener gets exactly one of onComplete or onError, unless the
+     * stream is cancelled first (or onToken throws, which cancels it).
+     */
+    public Cancellable streamDrugInteraction(String userMessage, TokenListener listener) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/chat/completions"))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+                .POST(HttpRequest.BodyPublishers.ofString(requestBody(userMessage, true)))
+                .build();
 
-        String requestBody = """
-        {
-          "model": "mixtral-8x7b-32768",
-          "messages": [
-            {
-              "role": "system",
-              "content": "You are a medical AI assistant specialized in drug interaction analysis."
-            },
-            {
-              "role": "user",
-              "content": "%s"
-            }
-          ],
-          "max_tokens": 500,
-          "temperature": 0.3
-        }
-        """.formatted(userMessage);
+        TokenStream stream = new TokenStream(listener);
+        streamClient.sendAsync(request, info -> info.statusCode() == 200
+                        ? HttpResponse.BodySubscribers.fromLineSubscriber(stream)
+                        : HttpResponse.BodySubscribers.replacing(null))
+                .whenComplete((response, ex) -> {
+                    if (ex != null) {
+                        stream.fail(ex);
+                    } else if (response.statusCode() != 200) {
+                        stream.fail(new IllegalStateException("Groq API returned " + response.statusCode()));
+                    }
+                });
+        return stream;
+    }
+
+    private String complete(String userMessage) {
+
+        String endpoint = baseUrl + "/chat/completions";
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         headers.setBearerAuth(apiKey);
 
-        HttpEntity<String> entity = new HttpEntity<>(requestBody, headers);
+        HttpEntity<String> entity = new HttpEntity<>(requestBody(userMessage, false), headers);
 
         ResponseEntity<String> response = restTemplate.exchange(
                 endpoint,
@@ -59,4 +118,110 @@ public class ChatService {
 
         return response.getBody();
     }
+
+    private String requestBody(String userMessage, boolean stream) {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("model", "mixtral-8x7b-32768");
+        ArrayNode messages = body.putArray("messages");
+        messages.addObject().put("role", "system").put("content", SYSTEM_PROMPT);
+        messages.addObject().put("role", "user").put("content", userMessage);
+        body.put("max_tokens", 500);
+        body.put("temperature", 0.3);
+        if (stream) body.put("stream", true);
+        return body.toString();
+    }
+
+    public interface TokenListener {
+        void onToken(String token) throws IOException;
+
+        void onComplete();
+
+        void onError(Throwable error);
+    }
+
+    public interface Cancellable {
+        void cancel();
+    }
+
+    /**
+     * Reads the OpenAI-style event stream ("data: {json}" lines ending with
+     * "data: [DONE]") one line per request(1).
+     */
+    private final class TokenStream implements Flow.Subscriber<String>, Cancellable {
+        private final TokenListener listener;
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private volatile Flow.Subscription subscription;
+
+        private TokenStream(TokenListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (finished.get()) {
+                subscription.cancel();
+            } else {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (finished.get()) return;
+            if (line.startsWith("data:")) {
+                String data = line.substring(5).trim();
+                if (data.equals("[DONE]")) {
+                    if (finished.compareAndSet(false, true)) listener.onComplete();
+                    subscription.cancel();
+                    return;
+                }
+                String token = token(data);
+                if (token != null && !token.isEmpty()) {
+                    try {
+                        listener.onToken(token);
+                    } catch (Exception ex) {
+                        // the consumer went away (e.g. the browser closed the connection)
+                        log.debug("Chat stream consumer failed, cancelling upstream: {}", ex.toString());
+                        cancel();
+                        return;
+                    }
+                }
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            fail(error);
+        }
+
+        @Override
+        public void onComplete() {
+            // the upstream closed the body without sending [DONE]
+            if (finished.compareAndSet(false, true)) listener.onComplete();
+        }
+
+        @Override
+        public void cancel() {
+            if (finished.compareAndSet(false, true)) {
+                Flow.Subscription s = subscription;
+                if (s != null) s.cancel();
+            }
+        }
+
+        private void fail(Throwable error) {
+            if (finished.compareAndSet(false, true)) listener.onError(error);
+        }
+
+        private String token(String data) {
+            try {
+                JsonNode content = objectMapper.readTree(data).path("choices").path(0).path("delta").path("content");
+                return content.isTextual() ? content.asText() : null;
+            } catch (IOException ex) {
+                log.debug("Skipping unparseable chat stream chunk: {}", data);
+                return null;
+            }
+        }
+    }
 }
@@ -0,0 +1,278 @@
+package com.example.interactionservice.service;
+
+import com.example.interactionservice.client.DrugClient;
+import com.example.interactionservice.dto.DrugDTO;
+import com.example.interactionservice.model.DrugChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Local snapshot of the drug catalogue so that analyses don't need a remote
+ * call per drug. Entries are evicted least-recently-used once the cache is
+ * full, go stale after a TTL, and can be invalidated by drug-database-service
+ * when a drug changes. A stale entry that carries a version is revalidated
+ * with a conditional GET rather than loaded again: while the drug is
+ * unchanged, drug-database-service answers 304 without a body and the entry
+ * is kept for another TTL. A cached drug found to have changed is
+ * announced with a DrugChangedEvent, as if drug-database-service had
+ * reported it, so a lost notification does not leave copies stale.
+ */
+@Component
+public class DrugCache {
+
+    private static final Logger log = LoggerFactory.getLogger(DrugCache.class);
+
+    private static final int WARM_UP_PAGE_SIZE = 500;
+
+    private final DrugClient drugClient;
+    private final DrugRequestCollapser collapser;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxSize;
+    private final long ttlMillis;
+
+    // access-ordered, guarded by "this"
+    private final LinkedHashMap<Long, Entry> entries;
+
+    // misses of getAsync that have not been answered yet
+    private final ConcurrentHashMap<Long, CompletableFuture<DrugDTO>> inFlight = new ConcurrentHashMap<>();
+
+    public DrugCache(DrugClient drugClient,
+                     DrugRequestCollapser collapser,
+                     ApplicationEventPublisher eventPublisher,
+                     @Value("${drug.cache.max-size:10000}") int maxSize,
+                     @Value("${drug.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.drugClient = drugClient;
+        this.collapser = collapser;
+        this.eventPublisher = eventPublisher;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > DrugCache.this.maxSize;
+            }
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            drugClient.forEachDrug(WARM_UP_PAGE_SIZE, this::put);
+            log.info("Drug cache warmed with {} drugs", size());
+        } catch (Exception ex) {
+            log.warn("Drug cache warm-up failed, drugs will be loaded on demand: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Returns the cached drug, loading it from drug-database-service on a miss
+     * or revalidating it once stale, or null if the drug does not exist.
+     * Misses are loaded through DrugRequestCollapser, so concurrent misses
+     * share one call. Lookup failures propagate to the caller.
+     */
+    public DrugDTO get(Long id) {
+        Entry entry = entry(id);
+        if (entry == null) return load(id);
+        if (!entry.isExpired(ttlMillis)) return entry.drug;
+        return entry.drug.getVersion() != null ? revalidate(entry.drug) : load(id);
+    }
+
+    /**
+     * Like get, but never blocks: a miss joins the collapser's next batch and
+     * is completed on the given executor, which also runs revalidations.
+     * Concurrent requests for the same missing or stale drug share one load.
+     * Lookup failures complete the future exceptionally, and so does a
+     * saturated executor, with a RejectedExecutionException.
+     */
+    public CompletableFuture<DrugDTO> getAsync(Long id, Executor executor) {
+        Entry entry = entry(id);
+        if (entry != null && !entry.isExpired(ttlMillis)) return CompletableFuture.completedFuture(entry.drug);
+
+        CompletableFuture<DrugDTO> load = new CompletableFuture<>();
+        CompletableFuture<DrugDTO> running = inFlight.putIfAbsent(id, load);
+        if (running != null) return running;
+        if (entry != null && entry.drug.getVersion() != null) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        DrugDTO drug = revalidate(entry.drug);
+                        inFlight.remove(id, load);
+                        load.complete(drug);
+                    } catch (RuntimeException | Error ex) {
+                        inFlight.remove(id, load);
+                        load.completeExceptionally(ex);
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                inFlight.remove(id, load);
+                load.completeExceptionally(ex);
+            }
+            return load;
+        }
+        collapser.load(id).whenComplete((drug, ex) -> {
+            inFlight.remove(id, load);
+            if (ex == null) loaded(id, drug);
+            // dependents run on the executor, not on the collapser's dispatcher
+            try {
+                executor.execute(() -> {
+                    if (ex != null) {
+                        load.completeExceptionally(ex);
+                    } else {
+                        load.complete(drug);
+                    }
+                });
+            } catch (RejectedExecutionException rejected) {
+                load.completeExceptionally(rejected);
+            }
+        });
+        return load;
+    }
+
+    /**
+     * The drugs with the given ids, by id. Every missing or stale drug is
+     * loaded at once: the loads join the collapser's open batch together, so
+     * n misses cost one POST /drugs/batch (per max-batch-size ids) instead of
+     * n calls one after the other. Stale drugs are reloaded with the misses
+     * rather than revalidated one by one. Drugs that do not exist, or could
+     * not be loaded, are left out.
+     */
+    public Map<Long, DrugDTO> getAll(Collection<Long> ids) {
+        Map<Long, DrugDTO> drugs = new HashMap<>();
+        Map<Long, CompletableFuture<DrugDTO>> loads = new LinkedHashMap<>();
+        for (Long id : ids) {
+            if (id == null || drugs.containsKey(id) || loads.containsKey(id)) continue;
+            DrugDTO cached = getIfPresent(id);
+            if (cached != null) {
+                drugs.put(id, cached);
+            } else {
+                loads.put(id, collapser.load(id));
+            }
+        }
+        for (Map.Entry<Long, CompletableFuture<DrugDTO>> load : loads.entrySet()) {
+            DrugDTO drug;
+            try {
+                drug = load.getValue().join();
+            } catch (CompletionException ex) {
+                log.debug("Drug {} could not be loaded: {}", load.getKey(), ex.getCause().getMessage());
+                continue;
+            }
+            loaded(load.getKey(), drug);
+            if (drug != null) drugs.put(load.getKey(), drug);
+        }
+        return drugs;
+    }
+
+    /**
+     * The cached drug, or null if it is missing or expired. Never loads.
+     */
+    public DrugDTO getIfPresent(Long id) {
+        Entry entry = entry(id);
+        return entry != null && !entry.isExpired(ttlMillis) ? entry.drug : null;
+    }
+
+    private synchronized Entry entry(Long id) {
+        return entries.get(id);
+    }
+
+    /**
+     * The stale drug again if drug-database-service answers 304, otherwise
+     * the drug as it is now; either is cached for another TTL. If the
+     * conditional GET fails (the drug may have been deleted), it is loaded
+     * like a miss.
+     */
+    private DrugDTO revalidate(DrugDTO stale) {
+        DrugDTO changed;
+        try {
+            changed = drugClient.getDrugIfChanged(stale.getId(), stale.getVersion());
+        } catch (RuntimeException ex) {
+            log.debug("Revalidation of drug {} failed, loading it again: {}", stale.getId(), ex.getMessage());
+            return load(stale.getId());
+        }
+        DrugDTO drug = changed != null ? changed : stale;
+        put(drug);
+        if (changed != null) changed(stale.getId());
+        return drug;
+    }
+
+    private DrugDTO load(Long id) {
+        DrugDTO drug = collapser.get(id);
+        loaded(id, drug);
+        return drug;
+    }
+
+    private void loaded(Long id, DrugDTO drug) {
+        Entry previous;
+        if (drug != null) {
+            previous = put(drug);
+        } else {
+            // deleted since it was cached: stop revalidating it
+            synchronized (this) {
+                previous = entries.remove(id);
+            }
+        }
+        if (previous != null && (drug == null || !Objects.equals(previous.drug.getVersion(), drug.getVersion()))) {
+            changed(id);
+        }
+    }
+
+    private void changed(Long id) {
+        log.debug("Drug {} changed since it was cached", id);
+        eventPublisher.publishEvent(new DrugChangedEvent(id));
+    }
+
+    public void invalidate(Long id) {
+        synchronized (this) {
+            entries.remove(id);
+        }
+        log.debug("Drug {} invalidated", id);
+        eventPublisher.publishEvent(new DrugChangedEvent(id));
+    }
+
+    public void invalidateAll() {
+        synchronized (this) {
+            entries.clear();
+        }
+        log.debug("Drug cache cleared");
+        eventPublisher.publishEvent(new DrugChangedEvent(null));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private Entry put(DrugDTO drug) {
+        if (drug.getId() == null) return null;
+        synchronized (this) {
+            return entries.put(drug.getId(), new Entry(drug));
+        }
+    }
+
+    private static final class Entry {
+        private final DrugDTO drug;
+        private final long loadedAt = System.currentTimeMillis();
+
+        private Entry(DrugDTO drug) {
+            this.drug = drug;
+        }
+
+        private boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.interactionservice.service;
+
+import brave.Span;
+import brave.Tracer;
+import brave.Tracing;
+import brave.propagation.CurrentTraceContext;
+import brave.propagation.TraceContext;
+import com.example.interactionservice.client.DrugClient;
+import com.example.interactionservice.dto.DrugDTO;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Merges single-drug lookups into POST /drugs/batch calls. The first lookup
+ * opens a batch; every lookup arriving within drug.collapser.window-ms joins
+ * it, and the batch is sent when the window closes or it holds
+ * drug.collapser.max-batch-size ids, whichever comes first. Repeated ids in a
+ * batch share one slot. A window of 0 sends each batch as soon as a
+ * dispatch thread is free, so only lookups that are already queued merge.
+ *
+ * Drugs the batch does not return complete with null; a failed call fails
+ * every lookup in the batch.
+ *
+ * The call runs in a "drug-batch" span. It joins the trace of the first
+ * sampled lookup it serves and is tagged with the trace ids of every
+ * lookup waiting on it, so each request can find the call that served it.
+ */
+@Component
+public class DrugRequestCollapser {
+
+    private final DrugClient drugClient;
+    private final Tracer tracer;
+    private final CurrentTraceContext currentTraceContext;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final ScheduledThreadPoolExecutor dispatcher;
+    private final DistributionSummary batchSizes;
+
+    // batch still accepting ids, guarded by "this"
+    private Batch open;
+
+    public DrugRequestCollapser(DrugClient drugClient,
+                                Tracing tracing,
+                                MeterRegistry meterRegistry,
+                                @Value("${drug.collapser.window-ms:2}") long windowMillis,
+                                @Value("${drug.collapser.max-batch-size:100}") int maxBatchSize,
+                                @Value("${drug.collapser.threads:4}") int threads) {
+        this.drugClient = drugClient;
+        this.tracer = tracing.tracer();
+        this.currentTraceContext = tracing.currentTraceContext();
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.dispatcher = new ScheduledThreadPoolExecutor(threads, r -> {
+            Thread t = new Thread(r, "drug-batch-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.dispatcher.setRemoveOnCancelPolicy(true);
+
+        this.batchSizes = DistributionSummary.builder("interaction.drug.batch.size")
+                .description("Drug ids per POST /drugs/batch call made by the request collapser")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The drug, or null if drug-database-service does not know it, once the
+     * batch it joined has been answered.
+     */
+    public CompletableFuture<DrugDTO> load(Long id) {
+        TraceContext caller = currentTraceContext.get();
+        Batch full = null;
+        CompletableFuture<DrugDTO> lookup;
+        synchronized (this) {
+            if (open == null) {
+                Batch batch = new Batch();
+                open = batch;
+                if (windowMillis > 0) {
+                    dispatcher.schedule(() -> dispatch(batch), windowMillis, TimeUnit.MILLISECONDS);
+                } else {
+                    dispatcher.execute(() -> dispatch(batch));
+                }
+            }
+            lookup = open.lookups.computeIfAbsent(id, k -> new CompletableFuture<>());
+            if (caller != null) open.callers.add(caller);
+            if (open.lookups.size() >= maxBatchSize) {
+                full = open;
+                open = null;
+            }
+        }
+        if (full != null) {
+            Batch batch = full;
+            dispatcher.execute(() -> dispatch(batch));
+        }
+        return lookup;
+    }
+
+    /**
+     * Blocking load; the client's exception is rethrown as is.
+     */
+    public DrugDTO get(Long id) {
+        try {
+            return load(id).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) throw (RuntimeException) ex.getCause();
+            throw ex;
+        }
+    }
+
+    private void dispatch(Batch batch) {
+        // a full batch is sent early and its window task runs later
+        if (!batch.sent.compareAndSet(false, true)) return;
+        synchronized (this) {
+            if (open == batch) open = null;
+        }
+
+        Map<Long, CompletableFuture<DrugDTO>> lookups = batch.lookups;
+        batchSizes.record(lookups.size());
+        Map<Long, DrugDTO> byId = new HashMap<>();
+        Span span = batchSpan(batch.callers).name("drug-batch")
+                .tag("drugs", String.valueOf(lookups.size()))
+                .start();
+        try (Tracer.SpanInScope ws = tracer.withSpanInScope(span)) {
+            for (DrugDTO drug : drugClient.getDrugs(lookups.keySet())) {
+                byId.put(drug.getId(), drug);
+            }
+        } catch (RuntimeException | Error ex) {
+            span.error(ex);
+            span.finish();
+            lookups.values().forEach(lookup -> lookup.completeExceptionally(ex));
+            return;
+        }
+        span.finish();
+        // outside the span, so what the lookups trigger stays in the requests' traces
+        lookups.forEach((id, lookup) -> lookup.complete(byId.get(id)));
+    }
+
+    /**
+     * Child of the first sampled caller, or of the first caller if none is
+     * sampled; a new trace when no caller was traced.
+     */
+    private Span batchSpan(List<TraceContext> callers) {
+        TraceContext parent = null;
+        Set<String> traceIds = new LinkedHashSet<>();
+        for (TraceContext caller : callers) {
+            traceIds.add(caller.traceIdString());
+            if (parent == null || (!Boolean.TRUE.equals(parent.sampled()) && Boolean.TRUE.equals(caller.sampled()))) {
+                parent = caller;
+            }
+        }
+        Span span = parent != null ? tracer.newChild(parent) : tracer.newTrace();
+        if (traceIds.size() > 1) span.tag("waiting.traces", String.join(",", traceIds));
+        return span;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+    }
+
+    private static final class Batch {
+        // insertion-ordered; only changed while the batch is open
+        private final Map<Long, CompletableFuture<DrugDTO>> lookups = new LinkedHashMap<>();
+        private final List<TraceContext> callers = new ArrayList<>();
+        private final AtomicBoolean sent = new AtomicBoolean();
+    }
+}
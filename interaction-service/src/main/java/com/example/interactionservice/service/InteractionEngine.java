@@ -1,43 +1,222 @@
 package com.example.interactionservice.service;
 
-import com.example.interactionservice.client.DrugClient;
+import com.example.interactionservice.dto.BatchInteractionResultDTO;
 import com.example.interactionservice.dto.DrugDTO;
 import com.example.interactionservice.dto.InteractionResultDTO;
 import com.example.interactionservice.dto.RiskLevel;
+import com.example.interactionservice.model.ConflictType;
 import com.example.interactionservice.model.InteractionRule;
+import com.example.interactionservice.model.SideEffectSet;
 import com.example.interactionservice.utils.ScoringUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Analyzes drug pairs into a structured result: risk level, score, the codes
+ * of the rules that fired, combined dosage and shared side-effect count. The
+ * human-readable message is only rendered when the caller passes a locale
+ * (detail=full); otherwise it is left null and no text is built.
+ *
+ * Meters: interaction.analyze{mode} (per pair, batch as a whole),
+ * interaction.rules.evaluate, interaction.rules.fired{type} and
+ * interaction.results{risk}.
+ */
 @Service
 public class InteractionEngine {
 
-    private final DrugClient drugClient;
+    private final DrugCache drugCache;
     private final RuleEngine ruleEngine;
-    private final SideEffectAnalyzer sideEffectAnalyzer;
+    private final InteractionMatrix matrix;
+    private final SideEffectDictionary sideEffectDictionary;
+    private final AnalysisMessageRenderer messageRenderer;
 
-    public InteractionEngine(DrugClient drugClient, RuleEngine ruleEngine) {
-        this.drugClient = drugClient;
+    private final Timer analyzeTimer;
+    private final Timer analyzeAsyncTimer;
+    private final Timer analyzeBatchTimer;
+    private final Timer rulesTimer;
+    private final Map<ConflictType, Counter> firedRules = new EnumMap<>(ConflictType.class);
+    private final Map<RiskLevel, Counter> results = new EnumMap<>(RiskLevel.class);
+
+    public InteractionEngine(DrugCache drugCache, RuleEngine ruleEngine, InteractionMatrix matrix,
+                             SideEffectDictionary sideEffectDictionary, AnalysisMessageRenderer messageRenderer,
+                             MeterRegistry meterRegistry) {
+        this.drugCache = drugCache;
         this.ruleEngine = ruleEngine;
-        this.sideEffectAnalyzer = new SideEffectAnalyzer();
+        this.matrix = matrix;
+        this.sideEffectDictionary = sideEffectDictionary;
+        this.messageRenderer = messageRenderer;
+
+        this.analyzeTimer = analyzeTimer(meterRegistry, "single");
+        this.analyzeAsyncTimer = analyzeTimer(meterRegistry, "async");
+        this.analyzeBatchTimer = analyzeTimer(meterRegistry, "batch");
+        this.rulesTimer = Timer.builder("interaction.rules.evaluate")
+                .description("Rule evaluation for one drug pair")
+                .register(meterRegistry);
+        for (ConflictType type : ConflictType.values()) {
+            firedRules.put(type, Counter.builder("interaction.rules.fired").tag("type", type.name())
+                    .description("Rules fired, by conflict type").register(meterRegistry));
+        }
+        for (RiskLevel risk : RiskLevel.values()) {
+            results.put(risk, Counter.builder("interaction.results").tag("risk", risk.name())
+                    .description("Analyzed pairs, by risk level").register(meterRegistry));
+        }
+    }
+
+    private static Timer analyzeTimer(MeterRegistry meterRegistry, String mode) {
+        return Timer.builder("interaction.analyze").tag("mode", mode)
+                .description("Interaction analysis, including drug lookups")
+                .register(meterRegistry);
     }
 
     public InteractionResultDTO analyze(Long idA, Long idB) {
-        DrugDTO d1;
-        DrugDTO d2;
+        return analyze(idA, idB, null);
+    }
 
+    /**
+     * @param messageLocale locale of the rendered message, or null for the
+     *                      structured result only
+     */
+    public InteractionResultDTO analyze(Long idA, Long idB, Locale messageLocale) {
+        long start = System.nanoTime();
         try {
-            d1 = drugClient.getDrug(idA);
+            InteractionResultDTO precomputed = lookupPrecomputed(idA, idB, messageLocale);
+            if (precomputed != null) return precomputed;
+            return analyze(fetchDrug(idA), fetchDrug(idB), messageLocale);
+        } finally {
+            analyzeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Non-blocking analyze: both drugs are fetched concurrently (one batch
+     * call if both miss the cache) and the rules run on the given executor
+     * when the second one arrives. Completes immediately when the matrix or
+     * the drug cache can answer, and with a RejectedExecutionException when
+     * the executor is saturated.
+     */
+    public CompletableFuture<InteractionResultDTO> analyzeAsync(Long idA, Long idB, Executor executor,
+                                                                Locale messageLocale) {
+        long start = System.nanoTime();
+        InteractionResultDTO precomputed = lookupPrecomputed(idA, idB, messageLocale);
+        if (precomputed != null) {
+            analyzeAsyncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return CompletableFuture.completedFuture(precomputed);
+        }
+        return fetchDrugAsync(idA, executor)
+                .thenCombine(fetchDrugAsync(idB, executor), (d1, d2) -> analyze(d1, d2, messageLocale))
+                .whenComplete((result, ex) ->
+                        analyzeAsyncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    public BatchInteractionResultDTO analyzeBatch(List<Long> drugIds) {
+        return analyzeBatch(drugIds, null);
+    }
+
+    /**
+     * Analyzes every pair of the given drugs in one pass. The drugs of the
+     * pairs the matrix cannot answer are fetched together, so n drugs cost
+     * at most one batch lookup instead of n*(n-1) single ones.
+     * results[j][i] is the mirror of results[i][j], with drugA and drugB
+     * swapped, so every cell matches analyze(drugIds[i], drugIds[j]). Each
+     * pair is analyzed once; with a message only the message is rendered
+     * again for the reverse order.
+     */
+    public BatchInteractionResultDTO analyzeBatch(List<Long> drugIds, Locale messageLocale) {
+        long start = System.nanoTime();
+
+        int n = drugIds.size();
+        List<List<InteractionResultDTO>> results = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            results.add(new ArrayList<>(Collections.nCopies(n, null)));
+        }
+        Set<Long> needed = new HashSet<>();
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                InteractionResultDTO result = lookupPrecomputed(drugIds.get(i), drugIds.get(j), messageLocale);
+                if (result != null) {
+                    results.get(i).set(j, result);
+                } else {
+                    needed.add(drugIds.get(i));
+                    needed.add(drugIds.get(j));
+                }
+            }
+        }
+
+        Map<Long, DrugDTO> drugs = fetchDrugs(needed);
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                DrugDTO d1 = drugs.get(drugIds.get(i));
+                DrugDTO d2 = drugs.get(drugIds.get(j));
+                InteractionResultDTO result = results.get(i).get(j);
+                if (result != null) {
+                    results.get(j).set(i, mirrored(result));
+                } else if (messageLocale == null || d1 == null || d2 == null) {
+                    result = analyze(d1, d2, messageLocale);
+                    results.get(i).set(j, result);
+                    results.get(j).set(i, mirrored(result));
+                } else {
+                    // a message names the drugs in order: the rules run once, the message is rendered twice
+                    List<InteractionRule> rules = evaluate(d1, d2);
+                    result = evaluated(d1, d2, rules, messageLocale);
+                    InteractionResultDTO reversed = mirrored(result);
+                    reversed.setMessage(messageRenderer.render(d2, d1, rules, result.getCombinedDosageMg(),
+                            messageLocale));
+                    results.get(i).set(j, result);
+                    results.get(j).set(i, reversed);
+                }
+            }
+        }
+
+        BatchInteractionResultDTO batch = new BatchInteractionResultDTO();
+        batch.setDrugIds(drugIds);
+        batch.setResults(results);
+        analyzeBatchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return batch;
+    }
+
+    private Map<Long, DrugDTO> fetchDrugs(Set<Long> ids) {
+        if (ids.isEmpty()) return Collections.emptyMap();
+        try {
+            return drugCache.getAll(ids);
         } catch (Exception ex) {
-            d1 = null;
+            return Collections.emptyMap();
         }
+    }
+
+    private DrugDTO fetchDrug(Long id) {
         try {
-            d2 = drugClient.getDrug(idB);
+            return drugCache.get(id);
         } catch (Exception ex) {
-            d2 = null;
+            return null;
         }
+    }
 
+    private CompletableFuture<DrugDTO> fetchDrugAsync(Long id, Executor executor) {
+        return drugCache.getAsync(id, executor).exceptionally(ex -> {
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            // no thread to analyze on: fail the request rather than analyze on this one
+            if (cause instanceof RejectedExecutionException) throw new CompletionException(cause);
+            return null;
+        });
+    }
+
+    private InteractionResultDTO analyze(DrugDTO d1, DrugDTO d2, Locale messageLocale) {
         InteractionResultDTO result = new InteractionResultDTO();
 
         if (d1 == null || d2 == null) {
@@ -46,84 +225,107 @@ public class InteractionEngine {
             result.setRiskLevel(RiskLevel.MODERATE);
             result.setSeverityScore(10);
             result.setMessage("One or both drugs could not be fetched from Drug Database Service.");
+            result.setFallback(true);
             return result;
         }
 
+        return evaluated(d1, d2, evaluate(d1, d2), messageLocale);
+    }
+
+    private List<InteractionRule> evaluate(DrugDTO d1, DrugDTO d2) {
+        long start = System.nanoTime();
         List<InteractionRule> rules = ruleEngine.evaluateRules(d1, d2);
+        rulesTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        for (InteractionRule rule : rules) {
+            if (rule.getType() != null) firedRules.get(rule.getType()).increment();
+        }
+        return rules;
+    }
+
+    private InteractionResultDTO evaluated(DrugDTO d1, DrugDTO d2, List<InteractionRule> rules,
+                                           Locale messageLocale) {
+        InteractionResultDTO result = new InteractionResultDTO();
         int score = ScoringUtils.calculateSeverity(rules);
+        int combinedDosage = combinedDosage(d1, d2);
 
         result.setDrugA(d1.getName());
         result.setDrugB(d2.getName());
         result.setSeverityScore(score);
-        
-        // Build comprehensive analysis message
-        String message = buildAnalysisMessage(d1, d2, rules, score);
-        result.setMessage(message);
+        result.setRiskLevel(riskLevel(score));
+        results.get(result.getRiskLevel()).increment();
+        result.setRuleCodes(ruleCodes(rules));
+        result.setCombinedDosageMg(combinedDosage);
+        result.setSharedSideEffects(sharedSideEffects(d1, d2));
+        if (messageLocale != null) {
+            result.setMessage(messageRenderer.render(d1, d2, rules, combinedDosage, messageLocale));
+        }
+        return result;
+    }
 
-        if (score < 30) result.setRiskLevel(RiskLevel.SAFE);
-        else if (score < 60) result.setRiskLevel(RiskLevel.MODERATE);
-        else if (score < 90) result.setRiskLevel(RiskLevel.HIGH);
-        else result.setRiskLevel(RiskLevel.CRITICAL);
+    /**
+     * Answers from the precomputed matrix when it is enabled and knows both
+     * drugs; returns null otherwise so the caller evaluates the rules. The
+     * matrix keeps the codes of the rules that fired and the drugs they fired
+     * for, so the result has the same fields as an evaluated one. A message
+     * is rendered from the rules themselves, so detail=full always evaluates.
+     */
+    private InteractionResultDTO lookupPrecomputed(Long idA, Long idB, Locale messageLocale) {
+        if (messageLocale != null || !matrix.isReady()) return null;
+        InteractionMatrix.Precomputed precomputed = matrix.lookup(idA, idB);
+        if (precomputed == null) return null;
+        DrugDTO d1 = precomputed.getDrugA();
+        DrugDTO d2 = precomputed.getDrugB();
 
+        InteractionResultDTO result = new InteractionResultDTO();
+        result.setDrugA(d1.getName());
+        result.setDrugB(d2.getName());
+        result.setSeverityScore(precomputed.getScore());
+        result.setRiskLevel(riskLevel(precomputed.getScore()));
+        results.get(result.getRiskLevel()).increment();
+        result.setRuleCodes(precomputed.getRuleCodes());
+        result.setCombinedDosageMg(combinedDosage(d1, d2));
+        result.setSharedSideEffects(sharedSideEffects(d1, d2));
         return result;
     }
-    
-    private String buildAnalysisMessage(DrugDTO d1, DrugDTO d2, List<InteractionRule> rules, int score) {
-        StringBuilder message = new StringBuilder();
-        
-        // Drug information
-        message.append("Analysis Summary:\n");
-        message.append("• Drug A: ").append(d1.getName());
-        if (d1.getCategory() != null) {
-            message.append(" (").append(d1.getCategory()).append(")");
-        }
-        if (d1.getDosageMg() != null) {
-            message.append(" - ").append(d1.getDosageMg()).append("mg");
-        }
-        message.append("\n");
-        
-        message.append("• Drug B: ").append(d2.getName());
-        if (d2.getCategory() != null) {
-            message.append(" (").append(d2.getCategory()).append(")");
-        }
-        if (d2.getDosageMg() != null) {
-            message.append(" - ").append(d2.getDosageMg()).append("mg");
-        }
-        message.append("\n\n");
-        
-        // Combined dosage
-        int totalDosage = (d1.getDosageMg() != null ? d1.getDosageMg() : 0) + 
-                         (d2.getDosageMg() != null ? d2.getDosageMg() : 0);
-        message.append("Combined Dosage: ").append(totalDosage).append("mg");
-        if (totalDosage > 1500) {
-            message.append(" (⚠️ Very High)");
-        } else if (totalDosage > 1000) {
-            message.append(" (⚠️ High)");
-        } else {
-            message.append(" (✓ Acceptable)");
-        }
-        message.append("\n\n");
-        
-        // Side effects analysis
-        String sideEffectAnalysis = sideEffectAnalyzer.analyze(d1, d2);
-        message.append("Side Effects: ").append(sideEffectAnalysis);
-        message.append("\n\n");
-        
-        // Interaction rules detected
-        if (rules.isEmpty()) {
-            message.append("✓ No significant interaction risks detected.\n");
-            message.append("✓ Category check: Passed (different categories)\n");
-            message.append("✓ Dosage check: Passed (within safe limits)\n");
-            message.append("✓ Side effects: No significant overlap\n");
-            message.append("\nOverall Assessment: These drugs can be safely used together.");
-        } else {
-            message.append("⚠️ Interaction Risks Detected:\n");
-            for (InteractionRule rule : rules) {
-                message.append("• ").append(rule.getDescription()).append("\n");
-            }
-            message.append("\nRecommendation: Consult with a healthcare professional before combining these medications.");
+
+    private static int combinedDosage(DrugDTO d1, DrugDTO d2) {
+        return (d1.getDosageMg() == null ? 0 : d1.getDosageMg())
+                + (d2.getDosageMg() == null ? 0 : d2.getDosageMg());
+    }
+
+    private Integer sharedSideEffects(DrugDTO d1, DrugDTO d2) {
+        SideEffectSet s1 = sideEffectDictionary.sideEffectsOf(d1);
+        SideEffectSet s2 = sideEffectDictionary.sideEffectsOf(d2);
+        return s1 == null || s2 == null ? null : s1.overlapCount(s2);
+    }
+
+    private static InteractionResultDTO mirrored(InteractionResultDTO res) {
+        InteractionResultDTO m = new InteractionResultDTO();
+        m.setDrugA(res.getDrugB());
+        m.setDrugB(res.getDrugA());
+        m.setRiskLevel(res.getRiskLevel());
+        m.setSeverityScore(res.getSeverityScore());
+        m.setMessage(res.getMessage());
+        m.setRuleCodes(res.getRuleCodes());
+        m.setFallback(res.isFallback());
+        m.setCombinedDosageMg(res.getCombinedDosageMg());
+        m.setSharedSideEffects(res.getSharedSideEffects());
+        return m;
+    }
+
+    private static List<String> ruleCodes(List<InteractionRule> rules) {
+        if (rules.isEmpty()) return Collections.emptyList();
+        List<String> codes = new ArrayList<>(rules.size());
+        for (InteractionRule rule : rules) {
+            codes.add(rule.getCode());
         }
-        
-        return message.toString();
+        return codes;
+    }
+
+    private static RiskLevel riskLevel(int score) {
+        if (score < 30) return RiskLevel.SAFE;
+        else if (score < 60) return RiskLevel.MODERATE;
+        else if (score < 90) return RiskLevel.HIGH;
+        else return RiskLevel.CRITICAL;
     }
 }
@@ -0,0 +1,438 @@
+package com.example.interactionservice.service;
+
+import com.example.interactionservice.client.DrugClient;
+import com.example.interactionservice.dto.DrugDTO;
+import com.example.interactionservice.dto.MatrixStatsDTO;
+import com.example.interactionservice.model.DrugChangedEvent;
+import com.example.interactionservice.model.InteractionRule;
+import com.example.interactionservice.model.RulesReloadedEvent;
+import com.example.interactionservice.utils.ScoringUtils;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed rule outcomes for every pair of drugs in the catalogue.
+ *
+ * Rule evaluation only depends on the two drugs, so the symmetric matrix is
+ * built once with a fork-join pass and /interactions/analyze can answer with
+ * an array read. Few distinct combinations of rules fire across all pairs,
+ * so each combination (its rule codes and score) is stored once as an
+ * Outcome, and the matrix holds a short index into them per pair, as a
+ * packed upper triangle (n*(n+1)/2 entries). When a single drug changes only its row is
+ * recomputed, and a drug added since the build gets a row of its own; a
+ * catalogue-wide change triggers a full rebuild.
+ *
+ * All updates run on a single background thread and publish a new snapshot
+ * (copy-on-write), so lookups are lock-free and never see a partial update.
+ */
+@Component
+public class InteractionMatrix {
+
+    private static final Logger log = LoggerFactory.getLogger(InteractionMatrix.class);
+
+    // rows per leaf task in the fork-join build
+    private static final int ROWS_PER_TASK = 16;
+
+    private static final int PAGE_SIZE = 500;
+
+    private final DrugClient drugClient;
+    private final DrugCache drugCache;
+    private final RuleEngine ruleEngine;
+    private final boolean enabled;
+    private final int maxDrugs;
+    private final ForkJoinPool pool;
+    private final ExecutorService updater = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "interaction-matrix-updater");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile Snapshot snapshot;
+    private volatile long lastBuildMillis;
+
+    public InteractionMatrix(DrugClient drugClient,
+                             DrugCache drugCache,
+                             RuleEngine ruleEngine,
+                             MeterRegistry meterRegistry,
+                             @Value("${interaction.matrix.enabled:false}") boolean enabled,
+                             @Value("${interaction.matrix.max-drugs:5000}") int maxDrugs,
+                             @Value("${interaction.matrix.parallelism:0}") int parallelism) {
+        this.drugClient = drugClient;
+        this.drugCache = drugCache;
+        this.ruleEngine = ruleEngine;
+        this.enabled = enabled;
+        this.maxDrugs = maxDrugs;
+        this.pool = parallelism > 0 ? new ForkJoinPool(parallelism) : ForkJoinPool.commonPool();
+
+        Gauge.builder("interaction.matrix.build.time", this, m -> m.lastBuildMillis)
+                .description("Duration of the last full matrix build")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("interaction.matrix.drugs", this, m -> m.getStats().getDrugCount())
+                .description("Number of drugs in the interaction matrix")
+                .register(meterRegistry);
+        Gauge.builder("interaction.matrix.memory", this, m -> m.getStats().getMemoryBytes())
+                .description("Approximate heap used by the interaction matrix")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return enabled && snapshot != null;
+    }
+
+    /**
+     * Returns the precomputed severity score, or -1 if either drug is not
+     * part of the matrix.
+     */
+    public int score(Long idA, Long idB) {
+        Precomputed p = lookup(idA, idB);
+        return p == null ? -1 : p.getScore();
+    }
+
+    /**
+     * Returns the precomputed outcome for the pair, with both drugs as they
+     * were when it was computed, or null if either drug is not part of the
+     * matrix.
+     */
+    public Precomputed lookup(Long idA, Long idB) {
+        Snapshot s = snapshot;
+        if (s == null) return null;
+        Integer a = s.index.get(idA);
+        Integer b = s.index.get(idB);
+        if (a == null || b == null) return null;
+        return new Precomputed(s.drugs[a], s.drugs[b], s.outcomes.get(s.scores[Snapshot.offset(a, b)]));
+    }
+
+    /**
+     * Returns the drug as it was when its row was last computed, or null.
+     */
+    public DrugDTO drug(Long id) {
+        Snapshot s = snapshot;
+        if (s == null) return null;
+        Integer i = s.index.get(id);
+        return i == null ? null : s.drugs[i];
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            updater.execute(this::rebuild);
+        }
+    }
+
+    @EventListener
+    public void onDrugChanged(DrugChangedEvent event) {
+        if (!enabled) return;
+        Long id = event.getDrugId();
+        if (id == null) {
+            updater.execute(this::rebuild);
+        } else {
+            updater.execute(() -> updateRow(id));
+        }
+    }
+
+    @EventListener
+    public void onRulesReloaded(RulesReloadedEvent event) {
+        requestRebuild();
+    }
+
+    public void requestRebuild() {
+        if (enabled) {
+            updater.execute(this::rebuild);
+        }
+    }
+
+    public MatrixStatsDTO getStats() {
+        Snapshot s = snapshot;
+        MatrixStatsDTO stats = new MatrixStatsDTO();
+        stats.setEnabled(enabled);
+        stats.setReady(s != null);
+        stats.setLastBuildMillis(lastBuildMillis);
+        if (s != null) {
+            stats.setDrugCount(s.index.size());
+            stats.setMemoryBytes(s.estimateBytes());
+        }
+        return stats;
+    }
+
+    // runs on the updater thread; package-private for tests
+    void rebuild() {
+        try {
+            List<DrugDTO> all = new ArrayList<>();
+            drugClient.forEachDrug(PAGE_SIZE, all::add);
+            if (all.size() > maxDrugs) {
+                log.warn("Catalogue has {} drugs, more than interaction.matrix.max-drugs={}; matrix disabled",
+                        all.size(), maxDrugs);
+                snapshot = null;
+                return;
+            }
+
+            long start = System.nanoTime();
+            Snapshot s = Snapshot.of(all.toArray(new DrugDTO[0]), new Outcomes());
+            pool.invoke(new RowRangeTask(s, 0, s.drugs.length));
+            lastBuildMillis = (System.nanoTime() - start) / 1_000_000;
+            snapshot = s;
+            log.info("Interaction matrix built for {} drugs in {} ms (~{} bytes)",
+                    s.drugs.length, lastBuildMillis, s.estimateBytes());
+        } catch (Exception ex) {
+            log.warn("Interaction matrix build failed: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Recomputes the row of a changed drug, adds a row for a new one or
+     * drops a deleted one. Works on a copy of the current snapshot and swaps
+     * it in when done, so lookups never see a half-written row. A deleted
+     * drug's row stays allocated until the next full rebuild. Runs on the
+     * updater thread; package-private for tests.
+     */
+    void updateRow(Long id) {
+        Snapshot s = snapshot;
+        if (s == null) return;
+
+        DrugDTO drug;
+        try {
+            drug = drugCache.get(id);
+        } catch (Exception ex) {
+            drug = null;
+        }
+        Integer row = s.index.get(id);
+        if (drug == null) {
+            // deleted (or unavailable): stop answering for it
+            if (row != null) snapshot = s.without(id);
+            return;
+        }
+
+        Snapshot next;
+        if (row != null) {
+            next = s.copy();
+        } else if (s.drugs.length < maxDrugs) {
+            next = s.append(id);
+            row = s.drugs.length;
+        } else {
+            log.warn("Drug {} not added to the interaction matrix: interaction.matrix.max-drugs={} reached",
+                    id, maxDrugs);
+            return;
+        }
+
+        final int r = row;
+        final DrugDTO changed = drug;
+        next.drugs[r] = changed;
+        pool.submit(() -> IntStream.range(0, next.drugs.length).parallel()
+                .forEach(j -> next.scores[Snapshot.offset(r, j)] = next.outcomes.intern(changed, next.drugs[j])))
+                .join();
+        snapshot = next;
+        log.debug("Interaction matrix row for drug {} recomputed", id);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        updater.shutdownNow();
+        if (pool != ForkJoinPool.commonPool()) {
+            pool.shutdownNow();
+        }
+    }
+
+    private final class RowRangeTask extends RecursiveAction {
+        private final Snapshot s;
+        private final int from;
+        private final int to;
+
+        private RowRangeTask(Snapshot s, int from, int to) {
+            this.s = s;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= ROWS_PER_TASK) {
+                int n = s.drugs.length;
+                for (int i = from; i < to; i++) {
+                    for (int j = i; j < n; j++) {
+                        s.scores[Snapshot.offset(i, j)] = s.outcomes.intern(s.drugs[i], s.drugs[j]);
+                    }
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RowRangeTask(s, from, mid), new RowRangeTask(s, mid, to));
+        }
+    }
+
+    /**
+     * Immutable once published: updates build a new snapshot.
+     */
+    static final class Snapshot {
+        private final DrugDTO[] drugs;
+        private final Map<Long, Integer> index;
+        // index into outcomes per pair
+        private final short[] scores;
+        private final Outcomes outcomes;
+
+        private Snapshot(DrugDTO[] drugs, Map<Long, Integer> index, short[] scores, Outcomes outcomes) {
+            this.drugs = drugs;
+            this.index = index;
+            this.scores = scores;
+            this.outcomes = outcomes;
+        }
+
+        private static Snapshot of(DrugDTO[] drugs, Outcomes outcomes) {
+            Map<Long, Integer> index = new HashMap<>(drugs.length * 2);
+            for (int i = 0; i < drugs.length; i++) {
+                index.put(drugs[i].getId(), i);
+            }
+            int n = drugs.length;
+            return new Snapshot(drugs, Collections.unmodifiableMap(index), new short[n * (n + 1) / 2], outcomes);
+        }
+
+        // same drugs and scores, to have one row rewritten
+        private Snapshot copy() {
+            return new Snapshot(drugs.clone(), index, scores.clone(), outcomes);
+        }
+
+        // one more row (and column) at the end for the given drug id; the
+        // packed layout keeps every existing score at its offset
+        private Snapshot append(Long id) {
+            int n = drugs.length + 1;
+            Map<Long, Integer> grown = new HashMap<>(index);
+            grown.put(id, n - 1);
+            return new Snapshot(Arrays.copyOf(drugs, n), Collections.unmodifiableMap(grown),
+                    Arrays.copyOf(scores, n * (n + 1) / 2), outcomes);
+        }
+
+        private Snapshot without(Long id) {
+            Map<Long, Integer> shrunk = new HashMap<>(index);
+            shrunk.remove(id);
+            return new Snapshot(drugs, Collections.unmodifiableMap(shrunk), scores, outcomes);
+        }
+
+        // position of (i, j) in the packed upper triangle, symmetric in i and j
+        static int offset(int i, int j) {
+            if (i > j) {
+                int t = i;
+                i = j;
+                j = t;
+            }
+            return j * (j + 1) / 2 + i;
+        }
+
+        private long estimateBytes() {
+            // scores + drug references + index entries (node, boxed key and value) + outcomes
+            return (long) scores.length * Short.BYTES
+                    + (long) drugs.length * 8
+                    + (long) index.size() * 64
+                    + (long) outcomes.size() * 128;
+        }
+    }
+
+    /**
+     * The distinct rule outcomes of one build, shared by the snapshots
+     * derived from it. Interning is thread-safe for the fork-join build;
+     * lookups read outcomes a published snapshot refers to, which were
+     * stored before it was published.
+     */
+    private final class Outcomes {
+        private final Map<List<String>, Short> ids = new ConcurrentHashMap<>();
+        private volatile Outcome[] byId = new Outcome[16];
+        private int size; // guarded by "this"
+
+        private Outcomes() {
+            ids.put(Collections.emptyList(), (short) 0);
+            byId[size++] = new Outcome(Collections.emptyList(), 0);
+        }
+
+        private short intern(DrugDTO a, DrugDTO b) {
+            List<InteractionRule> rules = ruleEngine.evaluateRules(a, b);
+            List<String> codes = codes(rules);
+            Short id = ids.get(codes);
+            if (id != null) return id;
+
+            synchronized (this) {
+                id = ids.get(codes);
+                if (id != null) return id;
+                if (size > Short.MAX_VALUE) {
+                    throw new IllegalStateException("More than " + (Short.MAX_VALUE + 1) + " distinct rule outcomes");
+                }
+                if (size == byId.length) {
+                    byId = Arrays.copyOf(byId, size * 2);
+                }
+                byId[size] = new Outcome(codes, ScoringUtils.calculateSeverity(rules));
+                id = (short) size++;
+                ids.put(codes, id);
+                return id;
+            }
+        }
+
+        private Outcome get(short id) {
+            return byId[id];
+        }
+
+        private int size() {
+            return ids.size();
+        }
+
+        private List<String> codes(List<InteractionRule> rules) {
+            if (rules.isEmpty()) return Collections.emptyList();
+            List<String> codes = new ArrayList<>(rules.size());
+            for (InteractionRule rule : rules) {
+                codes.add(rule.getCode());
+            }
+            return Collections.unmodifiableList(codes);
+        }
+    }
+
+    /**
+     * The codes of the rules that fired for a pair and their combined score.
+     */
+    private static final class Outcome {
+        private final List<String> ruleCodes;
+        private final int score;
+
+        private Outcome(List<String> ruleCodes, int score) {
+            this.ruleCodes = ruleCodes;
+            this.score = score;
+        }
+    }
+
+    /**
+     * A pair answered from the matrix.
+     */
+    public static final class Precomputed {
+        private final DrugDTO drugA;
+        private final DrugDTO drugB;
+        private final Outcome outcome;
+
+        private Precomputed(DrugDTO drugA, DrugDTO drugB, Outcome outcome) {
+            this.drugA = drugA;
+            this.drugB = drugB;
+            this.outcome = outcome;
+        }
+
+        public DrugDTO getDrugA() { return drugA;}
+        public DrugDTO getDrugB() { return drugB;}
+        public int getScore() { return outcome.score;}
+        public List<String> getRuleCodes() { return outcome.ruleCodes;}
+    }
+}
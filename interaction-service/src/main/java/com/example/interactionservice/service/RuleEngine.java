@@ -1,70 +1,137 @@
 package com.example.interactionservice.service;
 
 import com.example.interactionservice.dto.DrugDTO;
-import com.example.interactionservice.model.ConflictType;
 import com.example.interactionservice.model.InteractionRule;
+import com.example.interactionservice.model.RuleDefinition;
+import com.example.interactionservice.model.RulesReloadedEvent;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Evaluates the interaction rules defined in interaction.rules.location.
+ *
+ * The file is compiled into a RulePlan when loaded; reload() (or a change to
+ * the file, if interaction.rules.refresh-interval-seconds is set) swaps in a
+ * new plan without a restart. A file that fails to parse or validate leaves
+ * the current rules in place.
+ */
 @Component
 public class RuleEngine {
 
-    public List<InteractionRule> evaluateRules(DrugDTO d1, DrugDTO d2) {
-        List<InteractionRule> rules = new ArrayList<>();
+    private static final Logger log = LoggerFactory.getLogger(RuleEngine.class);
 
-        if (d1 == null || d2 == null) return rules;
+    private final SideEffectDictionary sideEffectDictionary;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Resource rulesResource;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledExecutorService refresher;
 
-        // Rule: Same category => high severity
-        if (d1.getCategory() != null && d1.getCategory().equalsIgnoreCase(d2.getCategory())) {
-            rules.add(new InteractionRule(
-                    ConflictType.CATEGORY_CONFLICT,
-                    70,
-                    "Both drugs are in same category: " + d1.getCategory()
-            ));
-        }
+    private volatile RulePlan plan;
+    private volatile long loadedLastModified;
+    private volatile long rejectedLastModified = -1;
 
-        // Rule: Side-effect overlap
-        long overlap = 0;
-        if (d1.getSideEffects() != null && d2.getSideEffects() != null) {
-            overlap = d1.getSideEffects().stream()
-                    .filter(d2.getSideEffects()::contains)
-                    .count();
+    public RuleEngine(SideEffectDictionary sideEffectDictionary,
+                      ResourceLoader resourceLoader,
+                      ApplicationEventPublisher eventPublisher,
+                      @Value("${interaction.rules.location:classpath:interaction-rules.json}") String rulesLocation,
+                      @Value("${interaction.rules.refresh-interval-seconds:0}") long refreshIntervalSeconds) {
+        this.sideEffectDictionary = sideEffectDictionary;
+        this.eventPublisher = eventPublisher;
+        this.rulesResource = resourceLoader.getResource(rulesLocation);
+        this.plan = load();
+
+        if (refreshIntervalSeconds > 0) {
+            refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "interaction-rules-refresher");
+                t.setDaemon(true);
+                return t;
+            });
+            refresher.scheduleWithFixedDelay(this::reloadIfModified,
+                    refreshIntervalSeconds, refreshIntervalSeconds, TimeUnit.SECONDS);
+        } else {
+            refresher = null;
         }
+    }
+
+    public List<InteractionRule> evaluateRules(DrugDTO d1, DrugDTO d2) {
+        if (d1 == null || d2 == null) return Collections.emptyList();
+        return plan.evaluate(d1, d2, sideEffectDictionary);
+    }
+
+    public List<RuleDefinition> getDefinitions() {
+        return plan.getDefinitions();
+    }
+
+    /**
+     * Loads and compiles the rules file again and switches to it.
+     * Throws IllegalArgumentException if the file is invalid.
+     */
+    public synchronized int reload() {
+        plan = load();
+        int count = plan.getDefinitions().size();
+        log.info("Loaded {} interaction rules from {}", count, rulesResource.getDescription());
+        eventPublisher.publishEvent(new RulesReloadedEvent(count));
+        return count;
+    }
 
-        if (overlap >= 2) {
-            rules.add(new InteractionRule(
-                    ConflictType.SIDE_EFFECT_OVERLAP,
-                    40,
-                    "Multiple overlapping side effects: " + overlap
-            ));
-        } else if (overlap == 1) {
-            rules.add(new InteractionRule(
-                    ConflictType.SIDE_EFFECT_OVERLAP,
-                    15,
-                    "Single overlapping side effect"
-            ));
+    /**
+     * Reloads when the file has changed since it was last loaded. A file that
+     * fails is not tried again until it changes again, so a bad edit is
+     * reported once rather than on every refresh.
+     */
+    void reloadIfModified() {
+        long lastModified = lastModified();
+        if (lastModified == loadedLastModified || lastModified == rejectedLastModified) return;
+        try {
+            reload();
+        } catch (Exception ex) {
+            rejectedLastModified = lastModified;
+            log.warn("Interaction rules not reloaded, keeping the current ones until the file changes: {}",
+                    ex.getMessage());
         }
+    }
 
-        // Rule: Combined dosage too high
-        int dosageA = d1.getDosageMg() == null ? 0 : d1.getDosageMg();
-        int dosageB = d2.getDosageMg() == null ? 0 : d2.getDosageMg();
+    private RulePlan load() {
+        try (InputStream in = rulesResource.getInputStream()) {
+            long lastModified = lastModified();
+            List<RuleDefinition> definitions = objectMapper.readValue(in, new TypeReference<List<RuleDefinition>>() {});
+            RulePlan compiled = RulePlan.compile(definitions);
+            loadedLastModified = lastModified;
+            return compiled;
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("Cannot read interaction rules from "
+                    + rulesResource.getDescription() + ": " + ex.getMessage(), ex);
+        }
+    }
 
-        if (dosageA + dosageB > 1500) {
-            rules.add(new InteractionRule(
-                    ConflictType.HIGH_DOSAGE_COMBINATION,
-                    90,
-                    "Combined dosage is greater than 1500 mg"
-            ));
-        } else if (dosageA + dosageB > 1000) {
-            rules.add(new InteractionRule(
-                    ConflictType.HIGH_DOSAGE_COMBINATION,
-                    45,
-                    "Combined dosage is between 1000 and 1500 mg"
-            ));
+    private long lastModified() {
+        try {
+            return rulesResource.lastModified();
+        } catch (IOException ex) {
+            return 0; // e.g. inside a jar; refresh never fires
         }
+    }
 
-        return rules;
+    @PreDestroy
+    public void shutdown() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
     }
 }
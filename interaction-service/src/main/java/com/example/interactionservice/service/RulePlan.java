@@ -0,0 +1,301 @@
+package com.example.interactionservice.service;
+
+import com.example.interactionservice.dto.DrugDTO;
+import com.example.interactionservice.model.ConflictType;
+import com.example.interactionservice.model.InteractionRule;
+import com.example.interactionservice.model.RuleDefinition;
+import com.example.interactionservice.model.RulePredicate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Rules compiled once at load time into an evaluation plan.
+ *
+ * Threshold rules (category, overlap, dosage) are checked in file order
+ * against facts computed once per pair; the side-effect overlap is only
+ * computed if some rule needs it. Pair rules (CATEGORY_PAIR, DRUG_PAIR) are
+ * indexed by name, so hundreds of them cost two map lookups. Nothing is
+ * allocated for a pair on which no rule fires.
+ */
+final class RulePlan {
+
+    private static final int MAX_GROUPS = Long.SIZE;
+
+    private final List<RuleDefinition> definitions;
+    private final CompiledRule[] scanned;
+    private final Map<String, Map<String, CompiledRule[]>> byCategoryPair;
+    private final Map<String, Map<String, CompiledRule[]>> byDrugPair;
+    private final boolean needsOverlap;
+
+    private RulePlan(List<RuleDefinition> definitions,
+                     CompiledRule[] scanned,
+                     Map<String, Map<String, CompiledRule[]>> byCategoryPair,
+                     Map<String, Map<String, CompiledRule[]>> byDrugPair,
+                     boolean needsOverlap) {
+        this.definitions = definitions;
+        this.scanned = scanned;
+        this.byCategoryPair = byCategoryPair;
+        this.byDrugPair = byDrugPair;
+        this.needsOverlap = needsOverlap;
+    }
+
+    static RulePlan compile(List<RuleDefinition> definitions) {
+        List<CompiledRule> scanned = new ArrayList<>();
+        Map<String, Map<String, List<CompiledRule>>> categoryPairs = caseInsensitiveMap();
+        Map<String, Map<String, List<CompiledRule>>> drugPairs = caseInsensitiveMap();
+        Map<String, Integer> groups = new HashMap<>();
+        Set<String> codes = new HashSet<>();
+        boolean needsOverlap = false;
+
+        for (RuleDefinition def : definitions) {
+            validate(def, codes);
+            int group = -1;
+            if (def.getGroup() != null) {
+                group = groups.computeIfAbsent(def.getGroup(), g -> groups.size());
+                if (group >= MAX_GROUPS) {
+                    throw new IllegalArgumentException("At most " + MAX_GROUPS + " rule groups are supported");
+                }
+            }
+            CompiledRule rule = new CompiledRule(def, group);
+
+            switch (def.getPredicate()) {
+                case CATEGORY_PAIR:
+                    index(categoryPairs, def.getCategories(), rule);
+                    break;
+                case DRUG_PAIR:
+                    index(drugPairs, def.getDrugs(), rule);
+                    break;
+                case SIDE_EFFECT_OVERLAP:
+                    needsOverlap = true;
+                    scanned.add(rule);
+                    break;
+                default:
+                    scanned.add(rule);
+            }
+        }
+
+        return new RulePlan(
+                Collections.unmodifiableList(new ArrayList<>(definitions)),
+                scanned.toArray(new CompiledRule[0]),
+                freeze(categoryPairs),
+                freeze(drugPairs),
+                needsOverlap);
+    }
+
+    List<RuleDefinition> getDefinitions() {
+        return definitions;
+    }
+
+    List<InteractionRule> evaluate(DrugDTO d1, DrugDTO d2, SideEffectDictionary dictionary) {
+        List<InteractionRule> fired = null;
+        long firedGroups = 0;
+
+        boolean sameCategory = d1.getCategory() != null && d1.getCategory().equalsIgnoreCase(d2.getCategory());
+        int overlap = needsOverlap ? dictionary.overlap(d1, d2) : 0;
+        int totalDosage = (d1.getDosageMg() == null ? 0 : d1.getDosageMg())
+                + (d2.getDosageMg() == null ? 0 : d2.getDosageMg());
+
+        for (CompiledRule rule : scanned) {
+            if (rule.group >= 0 && (firedGroups & (1L << rule.group)) != 0) continue;
+            if (!rule.matches(sameCategory, overlap, totalDosage)) continue;
+            if (rule.group >= 0) firedGroups |= 1L << rule.group;
+            fired = add(fired, rule.fire(d1, d2, overlap, totalDosage));
+        }
+
+        CompiledRule[] pairRules = lookup(byCategoryPair, d1.getCategory(), d2.getCategory());
+        if (pairRules != null) {
+            for (CompiledRule rule : pairRules) {
+                if (rule.group >= 0 && (firedGroups & (1L << rule.group)) != 0) continue;
+                if (rule.group >= 0) firedGroups |= 1L << rule.group;
+                fired = add(fired, rule.fire(d1, d2, overlap, totalDosage));
+            }
+        }
+
+        pairRules = lookup(byDrugPair, d1.getName(), d2.getName());
+        if (pairRules != null) {
+            for (CompiledRule rule : pairRules) {
+                if (rule.group >= 0 && (firedGroups & (1L << rule.group)) != 0) continue;
+                if (rule.group >= 0) firedGroups |= 1L << rule.group;
+                fired = add(fired, rule.fire(d1, d2, overlap, totalDosage));
+            }
+        }
+
+        return fired == null ? Collections.emptyList() : fired;
+    }
+
+    private static List<InteractionRule> add(List<InteractionRule> fired, InteractionRule rule) {
+        if (fired == null) fired = new ArrayList<>(4);
+        fired.add(rule);
+        return fired;
+    }
+
+    private static CompiledRule[] lookup(Map<String, Map<String, CompiledRule[]>> index, String a, String b) {
+        if (index.isEmpty() || a == null || b == null) return null;
+        Map<String, CompiledRule[]> partners = index.get(a);
+        return partners == null ? null : partners.get(b);
+    }
+
+    private static void validate(RuleDefinition def, Set<String> codes) {
+        if (def.getCode() == null || def.getCode().isBlank()) {
+            throw new IllegalArgumentException("Every rule needs a code");
+        }
+        String code = def.getCode();
+        if (!codes.add(code)) {
+            throw new IllegalArgumentException("Duplicate rule code: " + code);
+        }
+        if (def.getType() == null) {
+            throw new IllegalArgumentException("Rule " + code + ": type is required");
+        }
+        if (def.getPredicate() == null) {
+            throw new IllegalArgumentException("Rule " + code + ": predicate is required");
+        }
+        if (def.getSeverity() < 0) {
+            throw new IllegalArgumentException("Rule " + code + ": severity must not be negative");
+        }
+        if (def.getPredicate() == RulePredicate.CATEGORY_PAIR
+                && (def.getCategories() == null || def.getCategories().size() != 2)) {
+            throw new IllegalArgumentException("Rule " + code + ": CATEGORY_PAIR needs exactly two categories");
+        }
+        if (def.getPredicate() == RulePredicate.DRUG_PAIR
+                && (def.getDrugs() == null || def.getDrugs().size() != 2)) {
+            throw new IllegalArgumentException("Rule " + code + ": DRUG_PAIR needs exactly two drugs");
+        }
+        if (def.getDescription() == null) {
+            throw new IllegalArgumentException("Rule " + code + ": description is required");
+        }
+    }
+
+    private static Map<String, Map<String, List<CompiledRule>>> caseInsensitiveMap() {
+        return new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    }
+
+    private static void index(Map<String, Map<String, List<CompiledRule>>> index, List<String> pair, CompiledRule rule) {
+        String a = pair.get(0);
+        String b = pair.get(1);
+        index.computeIfAbsent(a, k -> new TreeMap<>(String.CASE_INSENSITIVE_ORDER))
+                .computeIfAbsent(b, k -> new ArrayList<>()).add(rule);
+        if (!a.equalsIgnoreCase(b)) {
+            index.computeIfAbsent(b, k -> new TreeMap<>(String.CASE_INSENSITIVE_ORDER))
+                    .computeIfAbsent(a, k -> new ArrayList<>()).add(rule);
+        }
+    }
+
+    private static Map<String, Map<String, CompiledRule[]>> freeze(Map<String, Map<String, List<CompiledRule>>> index) {
+        Map<String, Map<String, CompiledRule[]>> frozen = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        index.forEach((a, partners) -> {
+            Map<String, CompiledRule[]> rules = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            partners.forEach((b, list) -> rules.put(b, list.toArray(new CompiledRule[0])));
+            frozen.put(a, rules);
+        });
+        return frozen;
+    }
+
+    private static final class CompiledRule {
+        private final String code;
+        private final ConflictType type;
+        private final RulePredicate predicate;
+        private final int severity;
+        private final int min;
+        private final int max;
+        private final int group;
+        private final Template description;
+        // shared result for rules whose description has no placeholders
+        private final InteractionRule constant;
+
+        private CompiledRule(RuleDefinition def, int group) {
+            this.code = def.getCode();
+            this.type = def.getType();
+            this.predicate = def.getPredicate();
+            this.severity = def.getSeverity();
+            this.min = def.getMin() == null ? Integer.MIN_VALUE : def.getMin();
+            this.max = def.getMax() == null ? Integer.MAX_VALUE : def.getMax();
+            this.group = group;
+            this.description = Template.parse(code, def.getDescription());
+            this.constant = description.isConstant()
+                    ? new InteractionRule(code, type, severity, def.getDescription())
+                    : null;
+        }
+
+        private boolean matches(boolean sameCategory, int overlap, int totalDosage) {
+            switch (predicate) {
+                case SAME_CATEGORY:
+                    return sameCategory;
+                case SIDE_EFFECT_OVERLAP:
+                    return overlap >= min && overlap <= max;
+                case COMBINED_DOSAGE:
+                    return totalDosage >= min && totalDosage <= max;
+                default:
+                    return false;
+            }
+        }
+
+        private InteractionRule fire(DrugDTO d1, DrugDTO d2, int overlap, int totalDosage) {
+            if (constant != null) return constant;
+            return new InteractionRule(code, type, severity, description.render(d1, d2, overlap, totalDosage));
+        }
+    }
+
+    /**
+     * A description split into literal text and placeholders at load time.
+     */
+    private static final class Template {
+        private static final List<String> PLACEHOLDERS = List.of("drugA", "drugB", "category", "overlap", "totalDosage");
+
+        private final String[] literals;  // literals.length == placeholders.length + 1
+        private final int[] placeholders; // indexes into PLACEHOLDERS
+
+        private Template(String[] literals, int[] placeholders) {
+            this.literals = literals;
+            this.placeholders = placeholders;
+        }
+
+        static Template parse(String code, String text) {
+            List<String> literals = new ArrayList<>();
+            List<Integer> placeholders = new ArrayList<>();
+            int pos = 0;
+            while (true) {
+                int open = text.indexOf('{', pos);
+                if (open < 0) break;
+                int close = text.indexOf('}', open);
+                if (close < 0) break;
+                int placeholder = PLACEHOLDERS.indexOf(text.substring(open + 1, close));
+                if (placeholder < 0) {
+                    throw new IllegalArgumentException("Rule " + code + ": unknown placeholder "
+                            + text.substring(open, close + 1));
+                }
+                literals.add(text.substring(pos, open));
+                placeholders.add(placeholder);
+                pos = close + 1;
+            }
+            literals.add(text.substring(pos));
+            return new Template(literals.toArray(new String[0]),
+                    placeholders.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        boolean isConstant() {
+            return placeholders.length == 0;
+        }
+
+        String render(DrugDTO d1, DrugDTO d2, int overlap, int totalDosage) {
+            StringBuilder sb = new StringBuilder(64);
+            for (int i = 0; i < placeholders.length; i++) {
+                sb.append(literals[i]);
+                switch (placeholders[i]) {
+                    case 0: sb.append(d1.getName()); break;
+                    case 1: sb.append(d2.getName()); break;
+                    case 2: sb.append(d1.getCategory()); break;
+                    case 3: sb.append(overlap); break;
+                    default: sb.append(totalDosage);
+                }
+            }
+            return sb.append(literals[placeholders.length]).toString();
+        }
+    }
+}
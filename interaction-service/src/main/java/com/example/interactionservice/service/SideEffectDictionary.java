@@ -0,0 +1,86 @@
+package com.example.interactionservice.service;
+
+import com.example.interactionservice.dto.DrugDTO;
+import com.example.interactionservice.model.SideEffectSet;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns side-effect names to small integer ids. Names are compared
+ * case-insensitively and trimmed, so "Stomach Pain" and "stomach pain " are
+ * the same side effect; the first spelling seen is kept for display.
+ */
+@Component
+public class SideEffectDictionary {
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[64];
+    private int size; // guarded by "this"
+
+    public int intern(String sideEffect) {
+        String key = normalize(sideEffect);
+        Integer id = ids.get(key);
+        if (id != null) return id;
+
+        synchronized (this) {
+            id = ids.get(key);
+            if (id != null) return id;
+
+            if (size == names.length) {
+                names = Arrays.copyOf(names, size * 2);
+            }
+            names[size] = sideEffect.trim();
+            ids.put(key, size);
+            return size++;
+        }
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    public SideEffectSet encode(List<String> sideEffects) {
+        if (sideEffects == null || sideEffects.isEmpty()) return SideEffectSet.EMPTY;
+        int[] effectIds = new int[sideEffects.size()];
+        int count = 0;
+        for (String sideEffect : sideEffects) {
+            if (sideEffect != null) {
+                effectIds[count++] = intern(sideEffect);
+            }
+        }
+        return SideEffectSet.of(Arrays.copyOf(effectIds, count));
+    }
+
+    /**
+     * Returns the drug's encoded side effects, computing them once per DrugDTO
+     * instance. Returns null if the drug has no side-effect data.
+     */
+    public SideEffectSet sideEffectsOf(DrugDTO drug) {
+        if (drug.getSideEffects() == null) return null;
+        SideEffectSet set = drug.getSideEffectSet();
+        if (set == null) {
+            set = encode(drug.getSideEffects());
+            drug.setSideEffectSet(set);
+        }
+        return set;
+    }
+
+    /**
+     * Number of side effects both drugs share, 0 if either has no data.
+     */
+    public int overlap(DrugDTO d1, DrugDTO d2) {
+        SideEffectSet a = sideEffectsOf(d1);
+        SideEffectSet b = sideEffectsOf(d2);
+        if (a == null || b == null) return 0;
+        return a.overlapCount(b);
+    }
+
+    private static String normalize(String sideEffect) {
+        return sideEffect.trim().toLowerCase(Locale.ROOT);
+    }
+}
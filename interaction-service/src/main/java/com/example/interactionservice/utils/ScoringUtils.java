@@ -8,6 +8,10 @@ public class ScoringUtils {
 
     public static int calculateSeverity(List<InteractionRule> rules) {
         if (rules == null || rules.isEmpty()) return 0;
-        return rules.stream().mapToInt(InteractionRule::getSeverity).sum();
+        int sum = 0;
+        for (int i = 0; i < rules.size(); i++) {
+            sum += rules.get(i).getSeverity();
+        }
+        return sum;
     }
 }
@@ -0,0 +1,69 @@
+package com.example.interactionservice.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SideEffectSetTest {
+
+    @Test
+    public void testOverlapWithinOneWord() {
+        SideEffectSet a = SideEffectSet.of(0, 3, 5, 63);
+        SideEffectSet b = SideEffectSet.of(3, 4, 63);
+
+        assertThat(a.size()).isEqualTo(4);
+        assertThat(a.overlapCount(b)).isEqualTo(2);
+        assertThat(b.overlapCount(a)).isEqualTo(2);
+        assertThat(overlap(a, b)).containsExactly(3, 63);
+    }
+
+    @Test
+    public void testOverlapAcrossWords() {
+        // ids 64 and up live in the second and third words
+        SideEffectSet a = SideEffectSet.of(1, 64, 65, 127, 128, 200);
+        SideEffectSet b = SideEffectSet.of(1, 65, 128, 190);
+
+        assertThat(a.size()).isEqualTo(6);
+        assertThat(a.overlapCount(b)).isEqualTo(3);
+        assertThat(b.overlapCount(a)).isEqualTo(3);
+        assertThat(overlap(a, b)).containsExactly(1, 65, 128);
+    }
+
+    @Test
+    public void testSetsOfDifferentLengthsOverlapOnTheCommonWords() {
+        SideEffectSet shortSet = SideEffectSet.of(2, 7);
+        SideEffectSet longSet = SideEffectSet.of(2, 70, 300);
+
+        assertThat(shortSet.overlapCount(longSet)).isEqualTo(1);
+        assertThat(longSet.overlapCount(shortSet)).isEqualTo(1);
+        assertThat(overlap(longSet, shortSet)).containsExactly(2);
+    }
+
+    @Test
+    public void testIdsDoNotCollideAcrossWords() {
+        // 0, 64 and 128 share a bit position in their word
+        SideEffectSet a = SideEffectSet.of(0);
+        SideEffectSet b = SideEffectSet.of(64, 128);
+
+        assertThat(a.overlapCount(b)).isZero();
+        assertThat(overlap(a, b)).isEmpty();
+    }
+
+    @Test
+    public void testEmpty() {
+        assertThat(SideEffectSet.EMPTY.isEmpty()).isTrue();
+        assertThat(SideEffectSet.EMPTY.size()).isZero();
+        assertThat(SideEffectSet.of().isEmpty()).isTrue();
+        assertThat(SideEffectSet.of(100).isEmpty()).isFalse();
+        assertThat(SideEffectSet.EMPTY.overlapCount(SideEffectSet.of(1, 100))).isZero();
+    }
+
+    private static List<Integer> overlap(SideEffectSet a, SideEffectSet b) {
+        List<Integer> ids = new ArrayList<>();
+        a.forEachOverlap(b, ids::add);
+        return ids;
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.interactionservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs ChatService against a stub OpenAI-compatible server on a local port.
+ */
+public class ChatServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final ExecutorService clients = Executors.newFixedThreadPool(8);
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private ChatResponseCache cache;
+    private ChatService service;
+
+    private volatile int status = 200;
+    private volatile long delayMs;
+    private volatile String lastRequest;
+    private volatile List<String> streamedTokens = List.of();
+    private volatile long tokenDelayMs;
+    private final CountDownLatch streamAborted = new CountDownLatch(1);
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/v1/chat/completions", exchange -> {
+            int call = calls.incrementAndGet();
+            lastRequest = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            if (status == 200 && objectMapper.readTree(lastRequest).path("stream").asBoolean()) {
+                streamTokens(exchange);
+                return;
+            }
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = (status == 200
+                    ? "{\"choices\":[{\"message\":{\"content\":\"reply " + call + "\"}}]}"
+                    : "{\"error\":{\"message\":\"Rate limit reached\"}}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.start();
+
+        cache = new ChatResponseCache(new SimpleMeterRegistry(), 100, 600, 2000);
+        service = new ChatService(new RestTemplateBuilder(), objectMapper, cache, "test-key",
+                "http://localhost:" + server.getAddress().getPort() + "/v1", 1000, 5000);
+    }
+
+    /**
+     * Writes streamedTokens as OpenAI-style chunks, then [DONE]; counts down
+     * streamAborted if the client goes away first.
+     */
+    private void streamTokens(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (String token : streamedTokens) {
+                ObjectNode chunk = objectMapper.createObjectNode();
+                chunk.putArray("choices").addObject().putObject("delta").put("content", token);
+                out.write(("data: " + chunk + "\n\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                Thread.sleep(tokenDelayMs);
+            }
+            out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            streamAborted.countDown();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+        clients.shutdownNow();
+    }
+
+    @Test
+    public void testNormalisedPromptsShareOneCall() {
+        String first = service.analyzeDrugInteraction("Can I take Aspirin with Ibuprofen?");
+        String second = service.analyzeDrugInteraction("can i take aspirin   with ibuprofen");
+
+        assertThat(second).isEqualTo(first).contains("reply 1");
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testDifferentPromptsAreNotShared() {
+        service.analyzeDrugInteraction("Can I take aspirin with ibuprofen?");
+        service.analyzeDrugInteraction("Can I take aspirin with warfarin?");
+
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testConcurrentIdenticalPromptsShareOneUpstreamCall() throws Exception {
+        delayMs = 300;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> replies = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            replies.add(clients.submit(() -> {
+                start.await();
+                return service.analyzeDrugInteraction("Is paracetamol safe with alcohol?");
+            }));
+        }
+        start.countDown();
+
+        for (Future<String> reply : replies) {
+            assertThat(reply.get()).contains("reply 1");
+        }
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testFailuresAreNotCached() {
+        status = 429;
+        assertThatThrownBy(() -> service.analyzeDrugInteraction("Aspirin and ibuprofen?"))
+                .hasMessageContaining("429");
+
+        status = 200;
+        assertThat(service.analyzeDrugInteraction("Aspirin and ibuprofen?")).contains("reply 2");
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testPromptIsSentAsEscapedJson() throws IOException {
+        String prompt = "What does \"take with food\" mean?\nThanks";
+        service.analyzeDrugInteraction(prompt);
+
+        JsonNode request = objectMapper.readTree(lastRequest);
+        assertThat(request.get("messages").get(1).get("content").asText()).isEqualTo(prompt);
+    }
+
+    @Test
+    public void testStreamDeliversTokensAsTheyArrive() throws Exception {
+        streamedTokens = List.of("Aspirin", " and", " ibuprofen\n", "both thin the blood.");
+        RecordingListener listener = new RecordingListener();
+
+        service.streamDrugInteraction("Aspirin with ibuprofen?", listener);
+
+        assertThat(listener.done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(listener.tokens).containsExactlyElementsOf(streamedTokens);
+        assertThat(listener.error).isNull();
+        assertThat(objectMapper.readTree(lastRequest).get("stream").asBoolean()).isTrue();
+    }
+
+    @Test
+    public void testStreamStopsUpstreamWhenTheConsumerGoesAway() throws Exception {
+        streamedTokens = Collections.nCopies(1000, "token ");
+        tokenDelayMs = 10;
+        RecordingListener listener = new RecordingListener() {
+            @Override
+            public void onToken(String token) throws IOException {
+                super.onToken(token);
+                if (tokens.size() == 3) throw new IOException("Broken pipe");
+            }
+        };
+
+        service.streamDrugInteraction("Aspirin with ibuprofen?", listener);
+
+        assertThat(streamAborted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(listener.tokens).hasSize(3);
+        assertThat(listener.done.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testCancelledStreamStopsUpstream() throws Exception {
+        streamedTokens = Collections.nCopies(1000, "token ");
+        tokenDelayMs = 10;
+        RecordingListener listener = new RecordingListener();
+
+        ChatService.Cancellable stream = service.streamDrugInteraction("Aspirin with ibuprofen?", listener);
+        Thread.sleep(100);
+        stream.cancel();
+
+        assertThat(streamAborted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(listener.tokens.size()).isLessThan(1000);
+    }
+
+    @Test
+    public void testStreamReportsUpstreamErrors() throws Exception {
+        status = 429;
+        RecordingListener listener = new RecordingListener();
+
+        service.streamDrugInteraction("Aspirin with ibuprofen?", listener);
+
+        assertThat(listener.done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(listener.error).hasMessageContaining("429");
+        assertThat(listener.tokens).isEmpty();
+    }
+
+    private static class RecordingListener implements ChatService.TokenListener {
+        final List<String> tokens = new CopyOnWriteArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile Throwable error;
+
+        @Override
+        public void onToken(String token) throws IOException {
+            tokens.add(token);
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+            done.countDown();
+        }
+    }
+}
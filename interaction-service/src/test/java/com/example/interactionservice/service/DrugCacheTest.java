@@ -0,0 +1,177 @@
+package com.example.interactionservice.service;
+
+import brave.Tracing;
+import com.example.interactionservice.client.DrugClient;
+import com.example.interactionservice.dto.DrugDTO;
+import com.example.interactionservice.model.DrugChangedEvent;
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+
+public class DrugCacheTest {
+
+    private final DrugClient drugClient = Mockito.mock(DrugClient.class);
+    private final Tracing tracing = Tracing.newBuilder().build();
+    private final DrugRequestCollapser collapser = new DrugRequestCollapser(drugClient, tracing, new SimpleMeterRegistry(), 0, 100, 1);
+    private final ApplicationEventPublisher eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+    // a TTL of 0 makes every entry stale a millisecond after it was cached
+    private final DrugCache cache = new DrugCache(drugClient, collapser, eventPublisher, 100, 0);
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+        collapser.shutdown();
+        tracing.close();
+    }
+
+    @Test
+    public void testStaleDrugIsRevalidatedNotReloaded() throws Exception {
+        Mockito.when(drugClient.getDrugs(any())).thenReturn(List.of(drug(1L, "Aspirin", 5L)));
+        Mockito.when(drugClient.getDrugIfChanged(1L, 5L)).thenCallRealMethod();
+        Mockito.when(drugClient.getDrug(1L, "W/\"5\"")).thenThrow(notModified());
+
+        DrugDTO loaded = cache.get(1L);
+        Thread.sleep(5);
+        DrugDTO revalidated = cache.get(1L);
+        Thread.sleep(5);
+        DrugDTO async = cache.getAsync(1L, executor).get(5, TimeUnit.SECONDS);
+
+        assertThat(revalidated).isSameAs(loaded);
+        assertThat(async).isSameAs(loaded);
+        Mockito.verify(drugClient, Mockito.times(1)).getDrugs(any());
+        Mockito.verify(drugClient, Mockito.times(2)).getDrug(1L, "W/\"5\"");
+        Mockito.verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void testChangedDrugReplacesTheStaleOne() throws Exception {
+        Mockito.when(drugClient.getDrugs(any())).thenReturn(List.of(drug(1L, "Aspirin", 5L)));
+        Mockito.when(drugClient.getDrugIfChanged(1L, 5L)).thenReturn(drug(1L, "Aspirin Forte", 6L));
+
+        cache.get(1L);
+        Thread.sleep(5);
+        assertThat(cache.get(1L).getName()).isEqualTo("Aspirin Forte");
+        Thread.sleep(5);
+        cache.get(1L);
+
+        Mockito.verify(drugClient).getDrugIfChanged(1L, 6L);
+        // announced once, for the change from version 5 to 6
+        Mockito.verify(eventPublisher).publishEvent(Mockito.<Object>argThat(event ->
+                event instanceof DrugChangedEvent && ((DrugChangedEvent) event).getDrugId() == 1L));
+    }
+
+    @Test
+    public void testDeletedDrugIsDropped() throws Exception {
+        Mockito.when(drugClient.getDrugs(any()))
+                .thenReturn(List.of(drug(1L, "Aspirin", 5L)))
+                .thenReturn(Collections.emptyList());
+        Mockito.when(drugClient.getDrugIfChanged(1L, 5L)).thenThrow(new IllegalStateException("Drug not found with id: 1"));
+
+        cache.get(1L);
+        Thread.sleep(5);
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.size()).isZero();
+        Mockito.verify(eventPublisher).publishEvent(Mockito.<Object>argThat(event ->
+                event instanceof DrugChangedEvent && ((DrugChangedEvent) event).getDrugId() == 1L));
+    }
+
+    @Test
+    public void testDeletedDrugIsDroppedByAsyncLoads() throws Exception {
+        DrugDTO unversioned = drug(1L, "Aspirin", null);
+        Mockito.when(drugClient.getDrugs(any()))
+                .thenReturn(List.of(unversioned))
+                .thenReturn(Collections.emptyList());
+
+        cache.get(1L);
+        Thread.sleep(5);
+
+        assertThat(cache.getAsync(1L, executor).get(5, TimeUnit.SECONDS)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    public void testSaturatedExecutorFailsTheLoad() throws Exception {
+        Mockito.when(drugClient.getDrugs(any())).thenReturn(List.of(drug(1L, "Aspirin", 5L)));
+        Executor saturated = task -> {
+            throw new RejectedExecutionException("saturated");
+        };
+
+        assertThatThrownBy(() -> cache.getAsync(1L, saturated).get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+        Thread.sleep(5);
+        // stale now, so revalidated on the executor
+        assertThatThrownBy(() -> cache.getAsync(1L, saturated).get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+
+        assertThat(cache.getAsync(1L, executor).get(5, TimeUnit.SECONDS).getName()).isEqualTo("Aspirin");
+    }
+
+    @Test
+    public void testGetAllLoadsMissingAndStaleDrugsInOneCall() throws Exception {
+        Mockito.when(drugClient.getDrugs(any())).thenAnswer(inv -> {
+            List<DrugDTO> found = new ArrayList<>();
+            for (Long id : inv.<Collection<Long>>getArgument(0)) {
+                if (id < 4) found.add(drug(id, "Drug" + id, 1L));
+            }
+            return found;
+        });
+        // a window long enough for all loads to join one batch
+        DrugRequestCollapser windowed = new DrugRequestCollapser(drugClient, tracing, new SimpleMeterRegistry(), 50, 100, 1);
+        DrugCache batching = new DrugCache(drugClient, windowed, Mockito.mock(ApplicationEventPublisher.class), 100, 0);
+        try {
+            batching.get(1L);
+            Thread.sleep(5);
+
+            Map<Long, DrugDTO> drugs = batching.getAll(Arrays.asList(1L, 2L, 3L, 4L, 2L));
+
+            assertThat(drugs).containsOnlyKeys(1L, 2L, 3L);
+            Mockito.verify(drugClient, Mockito.times(2)).getDrugs(any());
+            Mockito.verify(drugClient).getDrugs(Set.of(1L, 2L, 3L, 4L));
+            Mockito.verify(drugClient, Mockito.never()).getDrugIfChanged(any(), any());
+        } finally {
+            windowed.shutdown();
+        }
+    }
+
+    private static FeignException notModified() {
+        Request request = Request.create(Request.HttpMethod.GET, "/drugs/1", Collections.emptyMap(),
+                null, StandardCharsets.UTF_8, null);
+        Response response = Response.builder().request(request).status(304).reason("Not Modified")
+                .headers(Collections.emptyMap()).build();
+        return FeignException.errorStatus("DrugClient#getDrug(Long,String)", response);
+    }
+
+    private static DrugDTO drug(Long id, String name, Long version) {
+        DrugDTO drug = new DrugDTO();
+        drug.setId(id);
+        drug.setName(name);
+        drug.setVersion(version);
+        drug.setSideEffects(Collections.emptyList());
+        return drug;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.interactionservice.service;
+
+import brave.ScopedSpan;
+import brave.Tracing;
+import brave.handler.MutableSpan;
+import brave.test.TestSpanHandler;
+import com.example.interactionservice.client.DrugClient;
+import com.example.interactionservice.dto.DrugDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+
+public class DrugRequestCollapserTest {
+
+    private final DrugClient drugClient = Mockito.mock(DrugClient.class);
+    private final TestSpanHandler spans = new TestSpanHandler();
+    private final Tracing tracing = Tracing.newBuilder().addSpanHandler(spans).build();
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+    private DrugRequestCollapser collapser;
+
+    @AfterEach
+    public void tearDown() {
+        callers.shutdownNow();
+        if (collapser != null) collapser.shutdown();
+        tracing.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testConcurrentLookupsShareOneBatchCall() throws Exception {
+        Mockito.when(drugClient.getDrugs(any())).thenAnswer(inv -> drugs(inv.getArgument(0)));
+        collapser = new DrugRequestCollapser(drugClient, tracing, new SimpleMeterRegistry(), 200, 100, 2);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<DrugDTO>> lookups = new ArrayList<>();
+        for (long id = 1; id <= 8; id++) {
+            Long drugId = id % 4 + 1;  // every id asked for twice
+            lookups.add(callers.submit(() -> {
+                start.await();
+                return collapser.get(drugId);
+            }));
+        }
+        start.countDown();
+
+        for (Future<DrugDTO> lookup : lookups) {
+            assertThat(lookup.get().getName()).startsWith("Drug");
+        }
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(drugClient, Mockito.times(1)).getDrugs(ids.capture());
+        assertThat(ids.getValue()).containsExactlyInAnyOrder(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    public void testFullBatchIsSentWithoutWaitingForTheWindow() throws Exception {
+        Mockito.when(drugClient.getDrugs(any())).thenAnswer(inv -> drugs(inv.getArgument(0)));
+        collapser = new DrugRequestCollapser(drugClient, tracing, new SimpleMeterRegistry(), 60_000, 3, 2);
+
+        CompletableFuture<DrugDTO> first = collapser.load(1L);
+        collapser.load(2L);
+        collapser.load(3L);
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+        Mockito.verify(drugClient, Mockito.times(1)).getDrugs(any());
+    }
+
+    @Test
+    public void testUnknownDrugsAreNull() {
+        Mockito.when(drugClient.getDrugs(any())).thenReturn(drugs(List.of(1L)));
+        collapser = new DrugRequestCollapser(drugClient, tracing, new SimpleMeterRegistry(), 0, 100, 1);
+
+        CompletableFuture<DrugDTO> known = collapser.load(1L);
+        CompletableFuture<DrugDTO> unknown = collapser.load(99L);
+
+        assertThat(known.join().getName()).isEqualTo("Drug1");
+        assertThat(unknown.join()).isNull();
+    }
+
+    @Test
+    public void testFailedCallFailsEveryLookupInTheBatch() {
+        Mockito.when(drugClient.getDrugs(any())).thenThrow(new IllegalStateException("drug-database-service down"));
+        collapser = new DrugRequestCollapser(drugClient, tracing, new SimpleMeterRegistry(), 50, 100, 1);
+
+        CompletableFuture<DrugDTO> other = collapser.load(2L);
+
+        assertThatThrownBy(() -> collapser.get(1L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("down");
+        assertThat(other).isCompletedExceptionally();
+        Mockito.verify(drugClient, Mockito.times(1)).getDrugs(any());
+    }
+
+    @Test
+    public void testBatchCallIsTracedUnderTheWaitingRequests() {
+        // stands in for the Feign client span, which Sleuth adds around the real call
+        Mockito.when(drugClient.getDrugs(any())).thenAnswer(inv -> {
+            tracing.tracer().startScopedSpan("drug-client").finish();
+            return drugs(inv.getArgument(0));
+        });
+        collapser = new DrugRequestCollapser(drugClient, tracing, new SimpleMeterRegistry(), 60_000, 2, 1);
+
+        ScopedSpan first = tracing.tracer().startScopedSpan("first request");
+        CompletableFuture<DrugDTO> firstLookup;
+        try {
+            firstLookup = collapser.load(1L);
+        } finally {
+            first.finish();
+        }
+        ScopedSpan second = tracing.tracer().startScopedSpan("second request");
+        try {
+            collapser.load(2L).join();
+        } finally {
+            second.finish();
+        }
+        firstLookup.join();
+
+        MutableSpan batch = span("drug-batch");
+        assertThat(batch.traceId()).isEqualTo(first.context().traceIdString());
+        assertThat(batch.parentId()).isEqualTo(first.context().spanIdString());
+        assertThat(batch.tags())
+                .containsEntry("drugs", "2")
+                .containsEntry("waiting.traces", first.context().traceIdString() + "," + second.context().traceIdString());
+        assertThat(span("drug-client").parentId()).isEqualTo(batch.id());
+    }
+
+    private MutableSpan span(String name) {
+        return spans.spans().stream().filter(s -> s.name().equals(name)).findFirst()
+                .orElseThrow(() -> new AssertionError("No span " + name + " in " + spans.spans()));
+    }
+
+    private static List<DrugDTO> drugs(Collection<Long> ids) {
+        List<DrugDTO> drugs = new ArrayList<>();
+        for (Long id : ids) {
+            DrugDTO drug = new DrugDTO();
+            drug.setId(id);
+            drug.setName("Drug" + id);
+            drugs.add(drug);
+        }
+        return drugs;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.interactionservice.service;
+
+import com.example.interactionservice.dto.BatchInteractionResultDTO;
+import com.example.interactionservice.dto.DrugDTO;
+import com.example.interactionservice.dto.InteractionResultDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+
+public class InteractionEngineTest {
+
+    private final DrugCache drugCache = Mockito.mock(DrugCache.class);
+    private final SideEffectDictionary dictionary = new SideEffectDictionary();
+    private final RuleEngine ruleEngine = new RuleEngine(dictionary, new DefaultResourceLoader(),
+            Mockito.mock(ApplicationEventPublisher.class), "classpath:interaction-rules.json", 0);
+    private final InteractionMatrix matrix = Mockito.mock(InteractionMatrix.class);
+    private final Map<Long, DrugDTO> drugs = new HashMap<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final InteractionEngine engine = new InteractionEngine(drugCache, ruleEngine, matrix, dictionary,
+            new AnalysisMessageRenderer(dictionary), meterRegistry);
+
+    @Test
+    public void testBatchMatchesPairwiseAnalyze() {
+        stubDrugs();
+        List<Long> ids = Arrays.asList(1L, 2L, 3L, 4L);
+
+        assertBatchMatchesPairwise(ids, null);
+        assertBatchMatchesPairwise(ids, Locale.ROOT);
+    }
+
+    @Test
+    public void testBatchWithMessagesEvaluatesEachPairOnce() {
+        stubDrugs();
+        List<Long> ids = Arrays.asList(1L, 2L, 3L, 4L);
+
+        engine.analyzeBatch(ids, null);
+        double rulesFired = count("interaction.rules.fired");
+        assertThat(meterRegistry.get("interaction.rules.evaluate").timer().count()).isEqualTo(6);
+        assertThat(count("interaction.results")).isEqualTo(6);
+
+        engine.analyzeBatch(ids, Locale.ROOT);
+        assertThat(meterRegistry.get("interaction.rules.evaluate").timer().count()).isEqualTo(12);
+        assertThat(count("interaction.results")).isEqualTo(12);
+        assertThat(count("interaction.rules.fired")).isEqualTo(2 * rulesFired);
+    }
+
+    @Test
+    public void testLowerTriangleNamesTheDrugsInItsOwnOrder() {
+        stubDrugs();
+
+        List<List<InteractionResultDTO>> results = engine.analyzeBatch(Arrays.asList(1L, 2L)).getResults();
+
+        assertThat(results.get(0).get(1).getDrugA()).isEqualTo("Aspirin");
+        assertThat(results.get(0).get(1).getDrugB()).isEqualTo("Ibuprofen");
+        assertThat(results.get(1).get(0).getDrugA()).isEqualTo("Ibuprofen");
+        assertThat(results.get(1).get(0).getDrugB()).isEqualTo("Aspirin");
+        assertThat(results.get(1).get(0).getRuleCodes()).isEqualTo(results.get(0).get(1).getRuleCodes());
+        assertThat(results.get(0).get(0)).isNull();
+    }
+
+    @Test
+    public void testDrugsAreFetchedTogether() {
+        stubDrugs();
+
+        engine.analyzeBatch(Arrays.asList(1L, 2L, 3L, 4L, 2L));
+
+        Mockito.verify(drugCache).getAll(Set.of(1L, 2L, 3L, 4L));
+        Mockito.verify(drugCache, Mockito.never()).get(any());
+    }
+
+    @Test
+    public void testAsyncAnalyzeFailsWhenTheExecutorIsSaturated() {
+        Mockito.when(drugCache.getAsync(any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new RejectedExecutionException("saturated")));
+
+        assertThatThrownBy(() -> engine.analyzeAsync(1L, 2L, Runnable::run, null).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+    }
+
+    private void assertBatchMatchesPairwise(List<Long> ids, Locale locale) {
+        BatchInteractionResultDTO batch = engine.analyzeBatch(ids, locale);
+
+        assertThat(batch.getDrugIds()).isEqualTo(ids);
+        for (int i = 0; i < ids.size(); i++) {
+            for (int j = 0; j < ids.size(); j++) {
+                InteractionResultDTO cell = batch.getResults().get(i).get(j);
+                if (i == j) {
+                    assertThat(cell).isNull();
+                } else {
+                    assertThat(cell).usingRecursiveComparison()
+                            .isEqualTo(engine.analyze(ids.get(i), ids.get(j), locale));
+                }
+            }
+        }
+    }
+
+    private double count(String counter) {
+        return meterRegistry.get(counter).counters().stream().mapToDouble(Counter::count).sum();
+    }
+
+    private void stubDrugs() {
+        Mockito.when(drugCache.getAll(any())).thenAnswer(inv -> {
+            Map<Long, DrugDTO> found = new HashMap<>();
+            for (Long id : inv.<Collection<Long>>getArgument(0)) {
+                if (drugs.containsKey(id)) found.put(id, drugs.get(id));
+            }
+            return found;
+        });
+        // same category, one shared side effect, 1100 mg combined
+        stub(drug(1L, "Aspirin", "NSAID", 500, "Nausea", "Bleeding"));
+        stub(drug(2L, "Ibuprofen", "NSAID", 600, "Nausea", "Heartburn"));
+        // two side effects shared with Warfarin, 1600 mg with Ibuprofen
+        stub(drug(3L, "Heparin", "Anticoagulant", 1000, "Bleeding", "Bruising"));
+        stub(drug(4L, "Warfarin", "Anticoagulant", 5, "Bleeding", "Bruising", "Hair loss"));
+    }
+
+    private void stub(DrugDTO drug) {
+        drugs.put(drug.getId(), drug);
+        Mockito.when(drugCache.get(drug.getId())).thenReturn(drug);
+    }
+
+    private static DrugDTO drug(Long id, String name, String category, int dosageMg, String... sideEffects) {
+        DrugDTO drug = new DrugDTO();
+        drug.setId(id);
+        drug.setName(name);
+        drug.setCategory(category);
+        drug.setDosageMg(dosageMg);
+        drug.setSideEffects(Arrays.asList(sideEffects));
+        return drug;
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.interactionservice.service;
+
+import com.example.interactionservice.client.DrugClient;
+import com.example.interactionservice.dto.DrugDTO;
+import com.example.interactionservice.dto.DrugPageDTO;
+import com.example.interactionservice.dto.InteractionResultDTO;
+import com.example.interactionservice.model.InteractionRule;
+import com.example.interactionservice.utils.ScoringUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+public class InteractionMatrixTest {
+
+    private final DrugClient drugClient = Mockito.mock(DrugClient.class);
+    private final DrugCache drugCache = Mockito.mock(DrugCache.class);
+    private final SideEffectDictionary dictionary = new SideEffectDictionary();
+    private final RuleEngine ruleEngine = new RuleEngine(dictionary, new DefaultResourceLoader(),
+            Mockito.mock(ApplicationEventPublisher.class), "classpath:interaction-rules.json", 0);
+    private final InteractionMatrix matrix = new InteractionMatrix(drugClient, drugCache, ruleEngine,
+            new SimpleMeterRegistry(), true, 5, 2);
+
+    private final List<DrugDTO> catalogue = new ArrayList<>(Arrays.asList(
+            drug(1L, "Aspirin", "NSAID", 500, "Nausea", "Bleeding"),
+            drug(2L, "Ibuprofen", "NSAID", 600, "Nausea", "Heartburn"),
+            drug(3L, "Heparin", "Anticoagulant", 1000, "Bleeding", "Bruising"),
+            drug(4L, "Warfarin", "Anticoagulant", 5, "Bleeding", "Bruising", "Hair loss")));
+
+    @BeforeEach
+    public void setUp() {
+        Mockito.doCallRealMethod().when(drugClient).forEachDrug(anyInt(), any());
+        Mockito.when(drugClient.getDrugPage(anyLong(), anyInt())).thenAnswer(inv -> {
+            DrugPageDTO page = new DrugPageDTO();
+            page.setItems(new ArrayList<>(catalogue));
+            return page;
+        });
+        matrix.rebuild();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        matrix.shutdown();
+    }
+
+    @Test
+    public void testOffsetsPackTheUpperTriangle() {
+        int n = 40;
+        Set<Integer> offsets = new HashSet<>();
+        for (int i = 0; i < n; i++) {
+            for (int j = i; j < n; j++) {
+                int offset = InteractionMatrix.Snapshot.offset(i, j);
+                assertThat(offset).isBetween(0, n * (n + 1) / 2 - 1);
+                assertThat(InteractionMatrix.Snapshot.offset(j, i)).isEqualTo(offset);
+                offsets.add(offset);
+            }
+        }
+        assertThat(offsets).hasSize(n * (n + 1) / 2);
+    }
+
+    @Test
+    public void testBuiltScoresMatchTheRules() {
+        assertThat(matrix.isReady()).isTrue();
+        assertThat(matrix.getStats().getDrugCount()).isEqualTo(4);
+        assertScoresMatchTheRules();
+    }
+
+    @Test
+    public void testChangedDrugHasItsRowRecomputed() {
+        DrugDTO changed = drug(2L, "Ibuprofen", "Anticoagulant", 1200, "Bruising");
+        catalogue.set(1, changed);
+        Mockito.when(drugCache.get(2L)).thenReturn(changed);
+
+        matrix.updateRow(2L);
+
+        assertThat(matrix.drug(2L)).isSameAs(changed);
+        assertScoresMatchTheRules();
+    }
+
+    @Test
+    public void testAddedDrugGetsARow() {
+        DrugDTO added = drug(5L, "Naproxen", "NSAID", 1000, "Nausea", "Heartburn");
+        catalogue.add(added);
+        Mockito.when(drugCache.get(5L)).thenReturn(added);
+
+        matrix.updateRow(5L);
+
+        assertThat(matrix.getStats().getDrugCount()).isEqualTo(5);
+        assertThat(matrix.drug(5L)).isSameAs(added);
+        assertScoresMatchTheRules();
+    }
+
+    @Test
+    public void testDrugsPastMaxDrugsAreNotAdded() {
+        DrugDTO fifth = drug(5L, "Naproxen", "NSAID", 1000);
+        DrugDTO sixth = drug(6L, "Diclofenac", "NSAID", 75);
+        Mockito.when(drugCache.get(5L)).thenReturn(fifth);
+        Mockito.when(drugCache.get(6L)).thenReturn(sixth);
+
+        matrix.updateRow(5L);
+        matrix.updateRow(6L);
+
+        assertThat(matrix.score(5L, 1L)).isGreaterThanOrEqualTo(0);
+        assertThat(matrix.score(6L, 1L)).isEqualTo(-1);
+    }
+
+    @Test
+    public void testDeletedDrugIsDropped() {
+        Mockito.when(drugCache.get(1L)).thenReturn(null);
+        catalogue.remove(0);
+
+        matrix.updateRow(1L);
+
+        assertThat(matrix.score(1L, 2L)).isEqualTo(-1);
+        assertThat(matrix.drug(1L)).isNull();
+        assertThat(matrix.getStats().getDrugCount()).isEqualTo(3);
+        assertScoresMatchTheRules();
+    }
+
+    @Test
+    public void testAnswersMatchRuleEvaluation() {
+        for (DrugDTO drug : catalogue) {
+            Mockito.when(drugCache.get(drug.getId())).thenReturn(drug);
+        }
+        InteractionEngine precomputed = engine(matrix);
+        InteractionEngine evaluated = engine(Mockito.mock(InteractionMatrix.class));
+
+        for (DrugDTO a : catalogue) {
+            for (DrugDTO b : catalogue) {
+                InteractionResultDTO answer = precomputed.analyze(a.getId(), b.getId());
+                assertThat(answer.getRuleCodes()).isNotNull();
+                assertThat(answer).as("%s vs %s", a.getName(), b.getName())
+                        .usingRecursiveComparison().isEqualTo(evaluated.analyze(a.getId(), b.getId()));
+            }
+        }
+    }
+
+    private void assertScoresMatchTheRules() {
+        for (DrugDTO a : catalogue) {
+            for (DrugDTO b : catalogue) {
+                List<InteractionRule> rules = ruleEngine.evaluateRules(a, b);
+                InteractionMatrix.Precomputed precomputed = matrix.lookup(a.getId(), b.getId());
+                assertThat(precomputed.getScore()).as("%s vs %s", a.getName(), b.getName())
+                        .isEqualTo(ScoringUtils.calculateSeverity(rules));
+                assertThat(precomputed.getRuleCodes()).as("%s vs %s", a.getName(), b.getName())
+                        .isEqualTo(rules.stream().map(InteractionRule::getCode).collect(Collectors.toList()));
+            }
+        }
+    }
+
+    private InteractionEngine engine(InteractionMatrix matrix) {
+        return new InteractionEngine(drugCache, ruleEngine, matrix, dictionary,
+                new AnalysisMessageRenderer(dictionary), new SimpleMeterRegistry());
+    }
+
+    private static DrugDTO drug(Long id, String name, String category, int dosageMg, String... sideEffects) {
+        DrugDTO drug = new DrugDTO();
+        drug.setId(id);
+        drug.setName(name);
+        drug.setCategory(category);
+        drug.setDosageMg(dosageMg);
+        drug.setSideEffects(Arrays.asList(sideEffects));
+        return drug;
+    }
+}
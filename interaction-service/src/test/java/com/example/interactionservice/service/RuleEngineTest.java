@@ -0,0 +1,195 @@
+package com.example.interactionservice.service;
+
+import com.example.interactionservice.dto.DrugDTO;
+import com.example.interactionservice.model.ConflictType;
+import com.example.interactionservice.model.InteractionRule;
+import com.example.interactionservice.model.RulesReloadedEvent;
+import com.example.interactionservice.utils.ScoringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+
+public class RuleEngineTest {
+
+    private static final List<String> SIDE_EFFECTS = Arrays.asList("Nausea", "Dizziness", "Headache");
+
+    private final SideEffectDictionary dictionary = new SideEffectDictionary();
+    private final ApplicationEventPublisher eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+    private RuleEngine engine;
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    public void tearDown() {
+        if (engine != null) engine.shutdown();
+    }
+
+    @Test
+    public void testShippedRulesMatchTheBaselineAtTheThresholds() {
+        engine = new RuleEngine(dictionary, new DefaultResourceLoader(), eventPublisher,
+                "classpath:interaction-rules.json", 0);
+        String[][] categories = {{"NSAID", "NSAID"}, {"NSAID", "nsaid"}, {"NSAID", "Anticoagulant"}, {null, null}};
+        Integer[][] dosages = {{500, 500}, {500, 501}, {1000, 500}, {1000, 501}, {1501, null}, {null, null}};
+
+        for (String[] category : categories) {
+            for (int overlap = 0; overlap <= 3; overlap++) {
+                for (Integer[] dosage : dosages) {
+                    DrugDTO d1 = drug("Aspirin", category[0], dosage[0], SIDE_EFFECTS);
+                    DrugDTO d2 = drug("Ibuprofen", category[1], dosage[1], sharing(overlap));
+
+                    List<InteractionRule> fired = engine.evaluateRules(d1, d2);
+                    List<InteractionRule> expected = baseline(d1, d2, overlap);
+
+                    String pair = Arrays.toString(category) + " overlap=" + overlap + " dosage=" + Arrays.toString(dosage);
+                    assertThat(describe(fired)).as(pair).isEqualTo(describe(expected));
+                    assertThat(ScoringUtils.calculateSeverity(fired)).as(pair)
+                            .isEqualTo(ScoringUtils.calculateSeverity(expected));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMalformedFileKeepsTheLivePlan() throws IOException {
+        Path rules = dir.resolve("rules.json");
+        copyShippedRules(rules);
+        engine = new RuleEngine(dictionary, new DefaultResourceLoader(), eventPublisher, "file:" + rules, 0);
+        DrugDTO d1 = drug("Aspirin", "NSAID", 1000, SIDE_EFFECTS);
+        DrugDTO d2 = drug("Ibuprofen", "NSAID", 501, sharing(2));
+        List<String> before = describe(engine.evaluateRules(d1, d2));
+
+        Files.writeString(rules, "[{\"code\": \"SAME_CATEGORY\", \"type\": \"CATEGORY_CONFLICT\", ");
+        assertThatThrownBy(() -> engine.reload()).isInstanceOf(IllegalArgumentException.class);
+
+        Files.writeString(rules, "[{\"code\": \"SAME_CATEGORY\", \"type\": \"CATEGORY_CONFLICT\","
+                + " \"predicate\": \"SAME_CATEGORY\", \"severity\": 70, \"description\": \"{nope}\"}]");
+        assertThatThrownBy(() -> engine.reload()).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("unknown placeholder {nope}");
+
+        assertThat(describe(engine.evaluateRules(d1, d2))).isEqualTo(before).hasSize(3);
+        assertThat(engine.getDefinitions()).hasSize(5);
+        Mockito.verify(eventPublisher, Mockito.never()).publishEvent(any(RulesReloadedEvent.class));
+    }
+
+    @Test
+    public void testValidFileReplacesThePlan() throws IOException {
+        Path rules = dir.resolve("rules.json");
+        copyShippedRules(rules);
+        engine = new RuleEngine(dictionary, new DefaultResourceLoader(), eventPublisher, "file:" + rules, 0);
+
+        Files.writeString(rules, "[{\"code\": \"SAME_CATEGORY\", \"type\": \"CATEGORY_CONFLICT\","
+                + " \"predicate\": \"SAME_CATEGORY\", \"severity\": 80, \"description\": \"Same category: {category}\"}]");
+
+        assertThat(engine.reload()).isEqualTo(1);
+        List<InteractionRule> fired = engine.evaluateRules(
+                drug("Aspirin", "NSAID", 1000, SIDE_EFFECTS), drug("Ibuprofen", "NSAID", 1000, SIDE_EFFECTS));
+        assertThat(describe(fired)).containsExactly("CATEGORY_CONFLICT/80/Same category: NSAID");
+        Mockito.verify(eventPublisher).publishEvent(any(RulesReloadedEvent.class));
+    }
+
+    @Test
+    public void testRejectedFileIsRetriedOnlyWhenItChangesAgain() throws IOException {
+        Path rules = dir.resolve("rules.json");
+        copyShippedRules(rules);
+        Files.setLastModifiedTime(rules, FileTime.fromMillis(1_000_000_000_000L));
+        Resource resource = Mockito.spy(new FileSystemResource(rules));
+        ResourceLoader loader = Mockito.mock(ResourceLoader.class);
+        Mockito.when(loader.getResource(any())).thenReturn(resource);
+        engine = new RuleEngine(dictionary, loader, eventPublisher, "file:" + rules, 0);
+
+        Files.writeString(rules, "[{\"code\": \"SAME_CATEGORY\", \"type\": \"CATEGORY_CONFLICT\", ");
+        Files.setLastModifiedTime(rules, FileTime.fromMillis(1_000_000_001_000L));
+        engine.reloadIfModified();
+        engine.reloadIfModified();
+        engine.reloadIfModified();
+
+        Mockito.verify(resource, Mockito.times(2)).getInputStream();
+        assertThat(engine.getDefinitions()).hasSize(5);
+
+        Files.writeString(rules, "[{\"code\": \"SAME_CATEGORY\", \"type\": \"CATEGORY_CONFLICT\","
+                + " \"predicate\": \"SAME_CATEGORY\", \"severity\": 80, \"description\": \"Same category: {category}\"}]");
+        Files.setLastModifiedTime(rules, FileTime.fromMillis(1_000_000_002_000L));
+        engine.reloadIfModified();
+        engine.reloadIfModified();
+
+        Mockito.verify(resource, Mockito.times(3)).getInputStream();
+        assertThat(engine.getDefinitions()).hasSize(1);
+        Mockito.verify(eventPublisher).publishEvent(any(RulesReloadedEvent.class));
+    }
+
+    /**
+     * The rules as they were hardcoded before interaction-rules.json.
+     */
+    private static List<InteractionRule> baseline(DrugDTO d1, DrugDTO d2, int overlap) {
+        List<InteractionRule> rules = new ArrayList<>();
+        if (d1.getCategory() != null && d1.getCategory().equalsIgnoreCase(d2.getCategory())) {
+            rules.add(new InteractionRule(ConflictType.CATEGORY_CONFLICT, 70,
+                    "Both drugs are in same category: " + d1.getCategory()));
+        }
+        if (overlap >= 2) {
+            rules.add(new InteractionRule(ConflictType.SIDE_EFFECT_OVERLAP, 40,
+                    "Multiple overlapping side effects: " + overlap));
+        } else if (overlap == 1) {
+            rules.add(new InteractionRule(ConflictType.SIDE_EFFECT_OVERLAP, 15, "Single overlapping side effect"));
+        }
+        int dosage = (d1.getDosageMg() == null ? 0 : d1.getDosageMg()) + (d2.getDosageMg() == null ? 0 : d2.getDosageMg());
+        if (dosage > 1500) {
+            rules.add(new InteractionRule(ConflictType.HIGH_DOSAGE_COMBINATION, 90,
+                    "Combined dosage is greater than 1500 mg"));
+        } else if (dosage > 1000) {
+            rules.add(new InteractionRule(ConflictType.HIGH_DOSAGE_COMBINATION, 45,
+                    "Combined dosage is between 1000 and 1500 mg"));
+        }
+        return rules;
+    }
+
+    private static List<String> describe(List<InteractionRule> rules) {
+        List<String> described = new ArrayList<>();
+        for (InteractionRule rule : rules) {
+            described.add(rule.getType() + "/" + rule.getSeverity() + "/" + rule.getDescription());
+        }
+        return described;
+    }
+
+    // side effects sharing exactly n with SIDE_EFFECTS
+    private static List<String> sharing(int n) {
+        List<String> sideEffects = new ArrayList<>(SIDE_EFFECTS.subList(0, n));
+        sideEffects.add("Rash");
+        return sideEffects;
+    }
+
+    private static void copyShippedRules(Path target) throws IOException {
+        try (InputStream in = RuleEngineTest.class.getResourceAsStream("/interaction-rules.json")) {
+            Files.copy(in, target);
+        }
+    }
+
+    private static DrugDTO drug(String name, String category, Integer dosageMg, List<String> sideEffects) {
+        DrugDTO drug = new DrugDTO();
+        drug.setName(name);
+        drug.setCategory(category);
+        drug.setDosageMg(dosageMg);
+        drug.setSideEffects(sideEffects);
+        return drug;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.interactionservice.service;
+
+import com.example.interactionservice.dto.DrugDTO;
+import com.example.interactionservice.model.SideEffectSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SideEffectDictionaryTest {
+
+    private final SideEffectDictionary dictionary = new SideEffectDictionary();
+
+    @Test
+    public void testInternIgnoresCaseAndSurroundingSpace() {
+        int id = dictionary.intern("Stomach Pain");
+
+        assertThat(dictionary.intern("stomach pain ")).isEqualTo(id);
+        assertThat(dictionary.intern(" STOMACH PAIN")).isEqualTo(id);
+        assertThat(dictionary.intern("Nausea")).isNotEqualTo(id);
+        assertThat(dictionary.name(id)).isEqualTo("Stomach Pain");
+    }
+
+    @Test
+    public void testIdsAreStableBeyondTheFirstWord() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            ids.add(dictionary.intern("Effect " + i));
+        }
+
+        for (int i = 0; i < 200; i++) {
+            assertThat(ids.get(i)).isEqualTo(i);
+            assertThat(dictionary.intern("effect " + i)).isEqualTo(i);
+            assertThat(dictionary.name(i)).isEqualTo("Effect " + i);
+        }
+    }
+
+    @Test
+    public void testOverlapOfDrugsWithMoreThan64SideEffects() {
+        for (int i = 0; i < 150; i++) {
+            dictionary.intern("Filler " + i);
+        }
+        DrugDTO d1 = drug("Nausea", "Rash", "Filler 3", "Filler 99", "Filler 140", "Bleeding");
+        DrugDTO d2 = drug("nausea", "filler 99", "Filler 140", "Headache", null);
+
+        assertThat(dictionary.overlap(d1, d2)).isEqualTo(3);
+        assertThat(dictionary.overlap(d2, d1)).isEqualTo(3);
+
+        List<String> shared = new ArrayList<>();
+        dictionary.sideEffectsOf(d1).forEachOverlap(dictionary.sideEffectsOf(d2), id -> shared.add(dictionary.name(id)));
+        assertThat(shared).containsExactly("Filler 99", "Filler 140", "Nausea");
+    }
+
+    @Test
+    public void testEncodingIsCachedOnTheDrug() {
+        DrugDTO drug = drug("Nausea", "Dizziness");
+
+        SideEffectSet set = dictionary.sideEffectsOf(drug);
+
+        assertThat(set.size()).isEqualTo(2);
+        assertThat(dictionary.sideEffectsOf(drug)).isSameAs(set);
+    }
+
+    @Test
+    public void testDrugsWithoutSideEffectDataDoNotOverlap() {
+        DrugDTO unknown = new DrugDTO();
+
+        assertThat(dictionary.sideEffectsOf(unknown)).isNull();
+        assertThat(dictionary.overlap(unknown, drug("Nausea"))).isZero();
+        assertThat(dictionary.encode(List.of())).isSameAs(SideEffectSet.EMPTY);
+    }
+
+    private static DrugDTO drug(String... sideEffects) {
+        DrugDTO drug = new DrugDTO();
+        drug.setSideEffects(Arrays.asList(sideEffects));
+        return drug;
+    }
+}
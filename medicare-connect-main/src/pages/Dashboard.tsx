@@ -23,12 +23,12 @@ export default function Dashboard() {
     try {
       const [drugsResponse, prescriptionsResponse] = await Promise.all([
         drugService.getAllDrugs(),
-        prescriptionService.getAllPrescriptions(),
+        prescriptionService.getAllPrescriptions({ size: 1 }),
       ]);
 
       setStats({
         totalDrugs: drugsResponse.data.length,
-        totalPrescriptions: prescriptionsResponse.data.length,
+        totalPrescriptions: Number(prescriptionsResponse.headers['x-total-count'] ?? prescriptionsResponse.data.length),
         recentAnalyses: Math.floor(Math.random() * 50) + 10, // Mock data
       });
     } catch (error) {
@@ -84,7 +84,7 @@ export default function Interactions() {
       setResult(response.data);
       
       // Check if the result indicates a service error
-      if (response.data.message?.includes("could not be fetched")) {
+      if (response.data.fallback) {
         toast.warning("Analysis completed, but some drug data may be missing. Check backend services.");
       } else {
         toast.success("Analysis completed");
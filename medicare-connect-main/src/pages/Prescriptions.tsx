@@ -267,7 +267,7 @@ export default function Prescriptions() {
               <CardHeader className="bg-gradient-to-br from-primary/10 to-accent/10">
                 <div className="flex items-start justify-between">
                   <div className="flex-1">
-                    <CardTitle className="text-lg">{prescription.patientName}</CardTitle>
+                    <CardTitle className="text-lg">{prescription.patientName || prescription.patientId}</CardTitle>
                     <CardDescription className="mt-1">
                       Dr. {prescription.doctorName}
                     </CardDescription>
@@ -1,5 +1,5 @@
 import axios from 'axios';
-import { Drug, InteractionResult, Prescription } from '@/types/drug';
+import { Drug, InteractionResult, Prescription, PrescriptionQuery } from '@/types/drug';
 
 // Use environment variables for API URLs, fallback to relative paths for Kubernetes deployment
 const DRUG_SERVICE_URL = import.meta.env.VITE_DRUG_SERVICE_URL || '/api/drugs';
@@ -49,8 +49,8 @@ export const interactionService = {
   analyzeInteraction: (drugA: number, drugB: number) => 
     apiClient.get<InteractionResult>(
       INTERACTION_SERVICE_URL.startsWith('/') 
-        ? `${INTERACTION_SERVICE_URL}/analyze?drugA=${drugA}&drugB=${drugB}`
-        : `${INTERACTION_SERVICE_URL}/interactions/analyze?drugA=${drugA}&drugB=${drugB}`
+        ? `${INTERACTION_SERVICE_URL}/analyze?drugA=${drugA}&drugB=${drugB}&detail=full`
+        : `${INTERACTION_SERVICE_URL}/interactions/analyze?drugA=${drugA}&drugB=${drugB}&detail=full`
     ),
   getHealth: () => apiClient.get<string>(INTERACTION_SERVICE_URL.startsWith('/') ? `${INTERACTION_SERVICE_URL}/health` : `${INTERACTION_SERVICE_URL}/health`),
   chat: (message: string) => 
@@ -64,8 +64,9 @@ export const interactionService = {
 
 // Prescription Service
 export const prescriptionService = {
-  getAllPrescriptions: () => 
-    apiClient.get<Prescription[]>(PRESCRIPTION_SERVICE_URL.startsWith('/') ? PRESCRIPTION_SERVICE_URL : `${PRESCRIPTION_SERVICE_URL}/prescriptions`),
+  // Paged listing (newest first by default); the total match count is in the X-Total-Count header
+  getAllPrescriptions: (params?: PrescriptionQuery) => 
+    apiClient.get<Prescription[]>(PRESCRIPTION_SERVICE_URL.startsWith('/') ? PRESCRIPTION_SERVICE_URL : `${PRESCRIPTION_SERVICE_URL}/prescriptions`, { params }),
   getPrescriptionById: (id: number) => 
     apiClient.get<Prescription>(PRESCRIPTION_SERVICE_URL.startsWith('/') ? `${PRESCRIPTION_SERVICE_URL}/${id}` : `${PRESCRIPTION_SERVICE_URL}/prescriptions/${id}`),
   createPrescription: (prescription: Omit<Prescription, 'id' | 'createdAt'>) => 
@@ -11,7 +11,12 @@ export interface InteractionResult {
   drugB: string;
   riskLevel: "SAFE" | "MODERATE" | "HIGH" | "CRITICAL";
   severityScore: number;
-  message: string;
+  // only present when requested with detail=full
+  message?: string;
+  ruleCodes?: string[] | null;
+  fallback?: boolean;
+  combinedDosageMg?: number | null;
+  sharedSideEffects?: number | null;
 }
 
 export interface PrescriptionItem {
@@ -23,8 +28,19 @@ export interface PrescriptionItem {
 export interface Prescription {
   id?: number;
   patientName: string;
+  patientId?: string;
   doctorName: string;
   createdAt?: string;
   items: PrescriptionItem[];
   interactionSummary?: string;
 }
+
+export interface PrescriptionQuery {
+  page?: number;
+  size?: number;
+  sort?: string; // e.g. "createdAt,desc"
+  patientName?: string;
+  doctorName?: string;
+  createdFrom?: string; // ISO date-time
+  createdTo?: string;
+}
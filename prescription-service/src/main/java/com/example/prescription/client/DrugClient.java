@@ -4,9 +4,20 @@ import com.example.prescription.dto.DrugDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
-@FeignClient(name = "drug-database-service", url = "${drug.service.url:}")
+import java.util.Collection;
+import java.util.Map;
+
+@FeignClient(name = "drug-database-service", url = "${drug.service.url:}", fallback = DrugClientFallback.class)
 public interface DrugClient {
     @GetMapping("/drugs/{id}")
     DrugDTO getDrug(@PathVariable("id") Long id);
+
+    /**
+     * The id of the drug with each name, keyed by the name as sent; unknown names are left out.
+     */
+    @PostMapping("/drugs/resolve")
+    Map<String, Long> resolveNames(@RequestBody Collection<String> names);
 }
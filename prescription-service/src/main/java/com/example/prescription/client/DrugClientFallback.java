@@ -1,8 +1,12 @@
 package com.example.prescription.client;
 
+import com.example.common.exceptions.DrugServiceUnavailableException;
 import com.example.prescription.dto.DrugDTO;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+import java.util.Map;
+
 @Component
 public class DrugClientFallback implements DrugClient {
     @Override
@@ -13,4 +17,10 @@ public class DrugClientFallback implements DrugClient {
         d.setName("UNKNOWN");
         return d;
     }
+
+    @Override
+    public Map<String, Long> resolveNames(Collection<String> names) {
+        // No safe stand-in: an empty answer would report every name as unknown
+        throw new DrugServiceUnavailableException("drug-database-service unavailable, drug names not resolved");
+    }
 }
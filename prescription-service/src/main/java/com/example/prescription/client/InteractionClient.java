@@ -1,13 +1,30 @@
 package com.example.prescription.client;
 
+import com.example.prescription.dto.BatchInteractionResultDTO;
 import com.example.prescription.dto.InteractionResultDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
-@FeignClient(name = "interaction-service", url = "${interaction.service.url:}")
+import java.util.List;
+
+@FeignClient(name = "interaction-service", url = "${interaction.service.url:}", fallback = InteractionClientFallback.class,
+        configuration = InteractionClientConfig.class)
 public interface InteractionClient {
 
+    /**
+     * Value of the detail parameter that asks for the human-readable message;
+     * null gets the structured result only.
+     */
+    String DETAIL_FULL = "full";
+
     @GetMapping("/interactions/analyze")
-    InteractionResultDTO analyze(@RequestParam("drugA") Long drugA, @RequestParam("drugB") Long drugB);
+    InteractionResultDTO analyze(@RequestParam("drugA") Long drugA, @RequestParam("drugB") Long drugB,
+                                 @RequestParam(value = "detail", required = false) String detail);
+
+    @PostMapping("/interactions/analyze-batch")
+    BatchInteractionResultDTO analyzeBatch(@RequestBody List<Long> drugIds,
+                                           @RequestParam(value = "detail", required = false) String detail);
 }
@@ -0,0 +1,29 @@
+package com.example.prescription.client;
+
+import feign.RequestInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+
+import java.util.Collections;
+
+/**
+ * Feign configuration for InteractionClient only (deliberately not a
+ * scanned @Configuration). With interaction.service.wire-format=smile the
+ * client prefers Smile responses, which WireFormatConfig decodes; JSON is
+ * still accepted, so an interaction-service without Smile keeps working.
+ */
+public class InteractionClientConfig {
+
+    private static final String SMILE = "application/x-jackson-smile";
+
+    @Bean
+    public RequestInterceptor wireFormatInterceptor(@Value("${interaction.service.wire-format:json}") String wireFormat) {
+        boolean smile = "smile".equalsIgnoreCase(wireFormat);
+        return template -> {
+            if (smile) {
+                template.header("Accept", Collections.emptyList());
+                template.header("Accept", SMILE, "application/json;q=0.5");
+            }
+        };
+    }
+}
@@ -1,19 +1,41 @@
 package com.example.prescription.client;
 
+import com.example.prescription.dto.BatchInteractionResultDTO;
 import com.example.prescription.dto.InteractionResultDTO;
 import com.example.prescription.dto.RiskLevel;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
 public class InteractionClientFallback implements InteractionClient {
     @Override
-    public InteractionResultDTO analyze(Long drugA, Long drugB) {
+    public InteractionResultDTO analyze(Long drugA, Long drugB, String detail) {
         InteractionResultDTO r = new InteractionResultDTO();
         r.setDrugA("UNKNOWN");
         r.setDrugB("UNKNOWN");
         r.setRiskLevel(RiskLevel.MODERATE);
         r.setSeverityScore(10);
         r.setMessage("Interaction service unavailable (fallback).");
+        r.setFallback(true);
         return r;
     }
+
+    @Override
+    public BatchInteractionResultDTO analyzeBatch(List<Long> drugIds, String detail) {
+        int n = drugIds.size();
+        List<List<InteractionResultDTO>> results = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            List<InteractionResultDTO> row = new ArrayList<>(n);
+            for (int j = 0; j < n; j++) {
+                row.add(i == j ? null : analyze(drugIds.get(i), drugIds.get(j), detail));
+            }
+            results.add(row);
+        }
+        BatchInteractionResultDTO batch = new BatchInteractionResultDTO();
+        batch.setDrugIds(drugIds);
+        batch.setResults(results);
+        return batch;
+    }
 }
@@ -0,0 +1,54 @@
+package com.example.prescription.client;
+
+import feign.Request;
+import feign.RetryableException;
+import feign.Retryer;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries idempotent GETs with exponential backoff and full jitter, so a
+ * brief blip is smoothed over without synchronised retry storms. Other
+ * methods (e.g. POST analyze-batch) fail straight to the circuit breaker.
+ */
+public class JitterRetryer implements Retryer {
+
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private int attempt = 1;
+
+    public JitterRetryer(int maxAttempts, long initialBackoffMs, long maxBackoffMs) {
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    @Override
+    public void continueOrPropagate(RetryableException e) {
+        if (e.method() != Request.HttpMethod.GET || attempt >= maxAttempts) {
+            throw e;
+        }
+        try {
+            Thread.sleep(nextBackoffMs());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    /**
+     * Uniform in [0, min(maxBackoffMs, initialBackoffMs * 2^(attempt - 1))].
+     * The shift is capped so a large max-attempts can't overflow it.
+     */
+    long nextBackoffMs() {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 30));
+        attempt++;
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    @Override
+    public Retryer clone() {
+        return new JitterRetryer(maxAttempts, initialBackoffMs, maxBackoffMs);
+    }
+}
@@ -18,6 +18,7 @@ public class CorsConfig {
         config.addAllowedOriginPattern("*");
         config.addAllowedHeader("*");
         config.addAllowedMethod("*");
+        config.addExposedHeader("X-Total-Count");
         config.setAllowCredentials(true);
         
         source.registerCorsConfiguration("/**", config);
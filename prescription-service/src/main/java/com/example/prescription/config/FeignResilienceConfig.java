@@ -0,0 +1,114 @@
+package com.example.prescription.config;
+
+import com.example.prescription.client.JitterRetryer;
+import feign.Request;
+import feign.RetryableException;
+import feign.Retryer;
+import feign.codec.ErrorDecoder;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JConfigBuilder;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4jBulkheadConfigurationBuilder;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4jBulkheadProvider;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.cloud.openfeign.CircuitBreakerNameResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Resilience for the Feign clients (feign.circuitbreaker.enabled). Each
+ * client gets its own circuit breaker, time limit and bulkhead, named after
+ * the client (drug-database-service, interaction-service), so a brown-out
+ * of one service trips only its breaker and answers from its fallback.
+ * Settings are under prescription.resilience; connect/read timeouts are the
+ * standard feign.client.config ones.
+ */
+@Configuration
+public class FeignResilienceConfig {
+
+    /**
+     * One breaker per client rather than Feign's default of one per method.
+     */
+    @Bean
+    public CircuitBreakerNameResolver circuitBreakerNameResolver() {
+        return (feignClientName, target, method) -> feignClientName;
+    }
+
+    @Bean
+    public Customizer<Resilience4JCircuitBreakerFactory> circuitBreakerDefaults(
+            @Value("${prescription.resilience.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${prescription.resilience.slow-call-threshold-ms:2000}") long slowCallThresholdMs,
+            @Value("${prescription.resilience.open-state-wait-seconds:10}") long openStateWaitSeconds,
+            @Value("${prescription.resilience.time-limit-ms:4000}") long timeLimitMs) {
+        CircuitBreakerConfig circuitBreaker = CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(20)
+                .minimumNumberOfCalls(10)
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(slowCallThresholdMs))
+                .slowCallRateThreshold(failureRateThreshold)
+                .waitDurationInOpenState(Duration.ofSeconds(openStateWaitSeconds))
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .build();
+        TimeLimiterConfig timeLimiter = TimeLimiterConfig.custom()
+                .timeoutDuration(Duration.ofMillis(timeLimitMs))
+                .cancelRunningFuture(true)
+                .build();
+        return factory -> factory.configureDefault(id -> new Resilience4JConfigBuilder(id)
+                .circuitBreakerConfig(circuitBreaker)
+                .timeLimiterConfig(timeLimiter)
+                .build());
+    }
+
+    /**
+     * Caps concurrent calls per client; once the pool and its queue are full,
+     * further calls go straight to the fallback instead of piling up.
+     */
+    @Bean
+    public Customizer<Resilience4jBulkheadProvider> bulkheadDefaults(
+            @Value("${prescription.resilience.max-concurrent-calls:20}") int maxConcurrentCalls,
+            @Value("${prescription.resilience.queue-capacity:20}") int queueCapacity) {
+        return provider -> provider.configureDefault(id -> new Resilience4jBulkheadConfigurationBuilder()
+                .bulkheadConfig(BulkheadConfig.custom()
+                        .maxConcurrentCalls(maxConcurrentCalls)
+                        .maxWaitDuration(Duration.ZERO)
+                        .build())
+                .threadPoolBulkheadConfig(ThreadPoolBulkheadConfig.custom()
+                        .coreThreadPoolSize(maxConcurrentCalls)
+                        .maxThreadPoolSize(maxConcurrentCalls)
+                        .queueCapacity(queueCapacity)
+                        .build())
+                .build());
+    }
+
+    @Bean
+    public Retryer feignRetryer(
+            @Value("${prescription.resilience.retry.max-attempts:3}") int maxAttempts,
+            @Value("${prescription.resilience.retry.initial-backoff-ms:100}") long initialBackoffMs,
+            @Value("${prescription.resilience.retry.max-backoff-ms:1000}") long maxBackoffMs) {
+        return new JitterRetryer(maxAttempts, initialBackoffMs, maxBackoffMs);
+    }
+
+    /**
+     * Makes gateway errors on GETs retryable; everything else is decoded as usual.
+     */
+    @Bean
+    public ErrorDecoder feignErrorDecoder() {
+        ErrorDecoder defaults = new ErrorDecoder.Default();
+        return (methodKey, response) -> {
+            int status = response.status();
+            Request request = response.request();
+            if ((status == 502 || status == 503 || status == 504) && request.httpMethod() == Request.HttpMethod.GET) {
+                return new RetryableException(status, "HTTP " + status + " from " + methodKey,
+                        request.httpMethod(), null, request);
+            }
+            return defaults.decode(methodKey, response);
+        };
+    }
+}
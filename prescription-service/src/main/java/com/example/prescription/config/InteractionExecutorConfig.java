@@ -0,0 +1,43 @@
+package com.example.prescription.config;
+
+import brave.Tracing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class InteractionExecutorConfig {
+
+    /**
+     * Bounded pool for the calls to interaction-service: the analyze-batch
+     * call of batch mode and the pairwise calls of
+     * prescription.interactions.mode=parallel. When the queue is full new
+     * calls are rejected rather than run on the request thread, where they
+     * could not be held to the deadline; their pairs are reported as not
+     * checked. Tasks run in the trace of the request that submitted them, so
+     * their Feign calls show up under it.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService interactionExecutor(
+            Tracing tracing,
+            @Value("${prescription.interactions.pool-size:16}") int poolSize,
+            @Value("${prescription.interactions.queue-capacity:256}") int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize,
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "interaction-call-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return tracing.currentTraceContext().executorService(executor);
+    }
+}
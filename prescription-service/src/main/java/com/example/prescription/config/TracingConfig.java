@@ -0,0 +1,28 @@
+package com.example.prescription.config;
+
+import brave.handler.SpanHandler;
+import com.example.common.tracing.LogSpanHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tracing is Spring Cloud Sleuth with Brave: incoming requests, Feign calls
+ * and circuit breakers get spans and B3 headers are propagated to the other
+ * services. PrescriptionService adds spans for the interaction analysis and
+ * the save, and InteractionExecutorConfig carries the trace onto the
+ * interaction-call threads.
+ *
+ * Sampled traces (spring.sleuth.sampler.probability) are written to the
+ * "tracing" logger, one line per span, so a slow prescription can be broken
+ * down call by call by searching the services' logs for its trace id.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(value = "tracing.log.enabled", matchIfMissing = true)
+    public SpanHandler logSpanHandler() {
+        return new LogSpanHandler();
+    }
+}
@@ -1,16 +1,30 @@
 package com.example.prescription.controller;
 
+import com.example.common.dto.PrescriptionRequestDTO;
+import com.example.common.exceptions.DrugNotFoundException;
+import com.example.common.exceptions.DrugServiceUnavailableException;
+import com.example.prescription.dto.PrescriptionInteractionDTO;
 import com.example.prescription.entity.Prescription;
 import com.example.prescription.service.PrescriptionService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/prescriptions")
 public class PrescriptionController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final Set<String> SORTABLE = Set.of("id", "patientName", "doctorName", "createdAt");
+
     private final PrescriptionService svc;
 
     public PrescriptionController(PrescriptionService svc) {
@@ -23,6 +37,17 @@ public class PrescriptionController {
         return ResponseEntity.ok(saved);
     }
 
+    /**
+     * Example: POST /prescriptions/by-name {"patientId": "P-1042", "drugNames": ["Aspirin", "Warfarin"]}
+     * Unknown names are a 400 listing every one of them; a 503 if they cannot
+     * be resolved because drug-database-service is down.
+     */
+    @PostMapping("/by-name")
+    public ResponseEntity<Prescription> createByName(@RequestBody PrescriptionRequestDTO request) {
+        Prescription saved = svc.createPrescriptionByName(request);
+        return ResponseEntity.ok(saved);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Prescription> get(@PathVariable Long id) {
         Prescription p = svc.getById(id);
@@ -30,9 +55,46 @@ public class PrescriptionController {
         return ResponseEntity.ok(p);
     }
 
+    /**
+     * Per-pair results; ?detail=full adds the analysis message of each pair.
+     */
+    @GetMapping("/{id}/interactions")
+    public ResponseEntity<List<PrescriptionInteractionDTO>> interactions(@PathVariable Long id,
+                                                                         @RequestParam(defaultValue = "summary") String detail) {
+        List<PrescriptionInteractionDTO> interactions = svc.getInteractions(id, "full".equalsIgnoreCase(detail));
+        if (interactions == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(interactions);
+    }
+
+    /**
+     * Example: GET /prescriptions?page=0&size=20&sort=createdAt,desc&patientName=Jo&createdFrom=2024-01-01T00:00:00
+     * The body stays a plain array; the total match count is in X-Total-Count.
+     */
     @GetMapping
-    public List<Prescription> all() {
-        return svc.getAll();
+    public ResponseEntity<List<Prescription>> all(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "createdAt,desc") String sort,
+            @RequestParam(required = false) String patientName,
+            @RequestParam(required = false) String doctorName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo) {
+        String[] sortParts = sort.split(",");
+        if (!SORTABLE.contains(sortParts[0])) {
+            return ResponseEntity.badRequest().build();
+        }
+        Sort.Direction direction = sortParts.length > 1 && "desc".equalsIgnoreCase(sortParts[1])
+                ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort order = Sort.by(direction, sortParts[0]);
+        if (!"id".equals(sortParts[0])) {
+            order = order.and(Sort.by("id")); // stable order across pages
+        }
+        PageRequest pageable = PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, MAX_PAGE_SIZE)), order);
+
+        Page<Prescription> result = svc.search(patientName, doctorName, createdFrom, createdTo, pageable);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(result.getTotalElements()))
+                .body(result.getContent());
     }
 
     @PutMapping("/{id}")
@@ -55,4 +117,14 @@ public class PrescriptionController {
         String summary = svc.validateOnly(p);
         return ResponseEntity.ok(summary);
     }
+
+    @ExceptionHandler(DrugNotFoundException.class)
+    public ResponseEntity<String> drugNotFound(DrugNotFoundException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
+    @ExceptionHandler(DrugServiceUnavailableException.class)
+    public ResponseEntity<String> drugServiceUnavailable(DrugServiceUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ex.getMessage());
+    }
 }
@@ -1,11 +1,16 @@
 package com.example.prescription.dto;
 
+import java.util.List;
+
 public class InteractionResultDTO {
     private String drugA;
     private String drugB;
     private RiskLevel riskLevel;
     private int severityScore;
     private String message;
+    private List<String> ruleCodes;
+    // true for degraded answers (service unavailable, drug not found, timed out); never cached
+    private boolean fallback;
 
     public InteractionResultDTO() {}
 
@@ -23,4 +28,10 @@ public class InteractionResultDTO {
 
     public String getMessage() { return message; }
     public void setMessage(String message) { this.message = message; }
+
+    public List<String> getRuleCodes() { return ruleCodes; }
+    public void setRuleCodes(List<String> ruleCodes) { this.ruleCodes = ruleCodes; }
+
+    public boolean isFallback() { return fallback; }
+    public void setFallback(boolean fallback) { this.fallback = fallback; }
 }
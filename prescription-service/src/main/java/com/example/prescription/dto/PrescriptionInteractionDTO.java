@@ -0,0 +1,40 @@
+package com.example.prescription.dto;
+
+import java.util.List;
+
+public class PrescriptionInteractionDTO {
+    private Long drugAId;
+    private Long drugBId;
+    private String drugA;
+    private String drugB;
+    private RiskLevel riskLevel;
+    private int severityScore;
+    private List<String> ruleCodes;
+    private String message; // only with detail=full
+
+    public PrescriptionInteractionDTO() {}
+
+    public Long getDrugAId() { return drugAId; }
+    public void setDrugAId(Long drugAId) { this.drugAId = drugAId; }
+
+    public Long getDrugBId() { return drugBId; }
+    public void setDrugBId(Long drugBId) { this.drugBId = drugBId; }
+
+    public String getDrugA() { return drugA; }
+    public void setDrugA(String drugA) { this.drugA = drugA; }
+
+    public String getDrugB() { return drugB; }
+    public void setDrugB(String drugB) { this.drugB = drugB; }
+
+    public RiskLevel getRiskLevel() { return riskLevel; }
+    public void setRiskLevel(RiskLevel riskLevel) { this.riskLevel = riskLevel; }
+
+    public int getSeverityScore() { return severityScore; }
+    public void setSeverityScore(int severityScore) { this.severityScore = severityScore; }
+
+    public List<String> getRuleCodes() { return ruleCodes; }
+    public void setRuleCodes(List<String> ruleCodes) { this.ruleCodes = ruleCodes; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
@@ -1,12 +1,20 @@
 package com.example.prescription.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.BatchSize;
+
 import javax.persistence.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "prescription")
+@Table(name = "prescription", indexes = {
+        @Index(name = "idx_prescription_patient_name", columnList = "patient_name"),
+        @Index(name = "idx_prescription_patient_id", columnList = "patient_id"),
+        @Index(name = "idx_prescription_doctor_name", columnList = "doctor_name"),
+        @Index(name = "idx_prescription_created_at", columnList = "created_at")
+})
 public class Prescription {
 
     @Id
@@ -15,22 +23,36 @@ public class Prescription {
 
     private String patientName;
 
+    // EHR patient id, for prescriptions created by POST /prescriptions/by-name
+    private String patientId;
+
     private String doctorName;
 
     private LocalDateTime createdAt = LocalDateTime.now();
 
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
     @JoinColumn(name = "prescription_id")
+    @BatchSize(size = 50)
     private List<PrescriptionItem> items = new ArrayList<>();
 
-    @Column(columnDefinition = "TEXT")
+    // Compact overview; per-pair results are in interactions
+    @Column(length = 1000)
     private String interactionSummary;
 
+    // Served by GET /prescriptions/{id}/interactions rather than inline
+    @JsonIgnore
+    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
+    @JoinColumn(name = "prescription_id")
+    @OrderBy("id")
+    private List<PrescriptionInteraction> interactions = new ArrayList<>();
+
     // getters/setters
     public Long getId(){return id;} public void setId(Long id){this.id=id;}
     public String getPatientName(){return patientName;} public void setPatientName(String p){this.patientName=p;}
+    public String getPatientId(){return patientId;} public void setPatientId(String p){this.patientId=p;}
     public String getDoctorName(){return doctorName;} public void setDoctorName(String d){this.doctorName=d;}
     public LocalDateTime getCreatedAt(){return createdAt;} public void setCreatedAt(LocalDateTime c){this.createdAt=c;}
     public List<PrescriptionItem> getItems(){return items;} public void setItems(List<PrescriptionItem> items){this.items=items;}
+    public List<PrescriptionInteraction> getInteractions(){return interactions;} public void setInteractions(List<PrescriptionInteraction> interactions){this.interactions=interactions;}
     public String getInteractionSummary(){return interactionSummary;} public void setInteractionSummary(String s){this.interactionSummary=s;}
 }
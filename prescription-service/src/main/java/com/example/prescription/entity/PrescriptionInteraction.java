@@ -0,0 +1,48 @@
+package com.example.prescription.entity;
+
+import com.example.prescription.dto.RiskLevel;
+
+import javax.persistence.*;
+
+/**
+ * One analyzed drug pair of a prescription. Only the structured outcome is
+ * stored; the explanatory message is rendered on demand by
+ * GET /prescriptions/{id}/interactions?detail=full.
+ */
+@Entity
+@Table(name = "prescription_interaction", indexes = {
+        @Index(name = "idx_prescription_interaction_risk", columnList = "risk_level")
+})
+public class PrescriptionInteraction {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long drugAId;
+
+    private Long drugBId;
+
+    private String drugA;
+
+    private String drugB;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private RiskLevel riskLevel;
+
+    private int severityScore;
+
+    // comma separated rule codes, e.g. "SAME_CATEGORY,COMBINED_DOSAGE_HIGH"
+    private String ruleCodes;
+
+    // getters/setters
+    public Long getId(){return id;} public void setId(Long id){this.id=id;}
+    public Long getDrugAId(){return drugAId;} public void setDrugAId(Long drugAId){this.drugAId=drugAId;}
+    public Long getDrugBId(){return drugBId;} public void setDrugBId(Long drugBId){this.drugBId=drugBId;}
+    public String getDrugA(){return drugA;} public void setDrugA(String drugA){this.drugA=drugA;}
+    public String getDrugB(){return drugB;} public void setDrugB(String drugB){this.drugB=drugB;}
+    public RiskLevel getRiskLevel(){return riskLevel;} public void setRiskLevel(RiskLevel riskLevel){this.riskLevel=riskLevel;}
+    public int getSeverityScore(){return severityScore;} public void setSeverityScore(int severityScore){this.severityScore=severityScore;}
+    public String getRuleCodes(){return ruleCodes;} public void setRuleCodes(String ruleCodes){this.ruleCodes=ruleCodes;}
+}
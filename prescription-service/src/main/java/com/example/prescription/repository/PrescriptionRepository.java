@@ -1,6 +1,16 @@
 package com.example.prescription.repository;
 
 import com.example.prescription.entity.Prescription;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
-public interface PrescriptionRepository extends JpaRepository<Prescription, Long> {}
+import java.util.Collection;
+import java.util.List;
+
+public interface PrescriptionRepository extends JpaRepository<Prescription, Long>, JpaSpecificationExecutor<Prescription> {
+
+    // Loads a page's prescriptions with their items in one query (paging a collection fetch directly would page in memory)
+    @EntityGraph(attributePaths = "items")
+    List<Prescription> findWithItemsByIdIn(Collection<Long> ids);
+}
@@ -0,0 +1,40 @@
+package com.example.prescription.repository;
+
+import com.example.prescription.entity.Prescription;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters for the prescription listing. Each returns null when its value is
+ * absent, which Specification.where/and treat as "no restriction". Name
+ * filters are prefix matches so they can use the column indexes.
+ */
+public final class PrescriptionSpecifications {
+
+    private PrescriptionSpecifications() {}
+
+    public static Specification<Prescription> patientNameStartsWith(String patientName) {
+        if (patientName == null || patientName.isBlank()) return null;
+        return (root, query, cb) -> cb.like(root.get("patientName"), escape(patientName.trim()) + "%", '\\');
+    }
+
+    public static Specification<Prescription> doctorNameStartsWith(String doctorName) {
+        if (doctorName == null || doctorName.isBlank()) return null;
+        return (root, query, cb) -> cb.like(root.get("doctorName"), escape(doctorName.trim()) + "%", '\\');
+    }
+
+    public static Specification<Prescription> createdFrom(LocalDateTime from) {
+        if (from == null) return null;
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), from);
+    }
+
+    public static Specification<Prescription> createdBefore(LocalDateTime to) {
+        if (to == null) return null;
+        return (root, query, cb) -> cb.lessThan(root.get("createdAt"), to);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
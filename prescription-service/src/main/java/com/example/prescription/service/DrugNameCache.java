@@ -0,0 +1,128 @@
+package com.example.prescription.service;
+
+import com.example.prescription.client.DrugClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Drug ids by drug name, for prescriptions submitted by name. Names missing
+ * from the cache are resolved together in one POST /drugs/resolve call to
+ * drug-database-service, however many there are. Names are cached ignoring
+ * case and surrounding blanks; drug-database-service folds accents and
+ * punctuation as well, so such variants resolve to the same id but are
+ * cached separately.
+ *
+ * Entries are evicted least-recently-used once the cache is full and expire
+ * after a TTL, which bounds how long a renamed drug keeps its old name here.
+ * Unknown names are never cached, so a drug added to the catalogue can be
+ * prescribed straight away.
+ */
+@Component
+public class DrugNameCache {
+
+    private final DrugClient drugClient;
+    private final int maxSize;
+    private final long ttlMillis;
+
+    // access-ordered, guarded by "this"
+    private final LinkedHashMap<String, Entry> entries;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public DrugNameCache(DrugClient drugClient,
+                         MeterRegistry meterRegistry,
+                         @Value("${prescription.drug-names.cache.max-size:10000}") int maxSize,
+                         @Value("${prescription.drug-names.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.drugClient = drugClient;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > DrugNameCache.this.maxSize;
+            }
+        };
+
+        this.hits = Counter.builder("prescription.drug.name.cache.requests").tag("result", "hit")
+                .description("Drug name cache lookups").register(meterRegistry);
+        this.misses = Counter.builder("prescription.drug.name.cache.requests").tag("result", "miss")
+                .description("Drug name cache lookups").register(meterRegistry);
+        Gauge.builder("prescription.drug.name.cache.size", this, DrugNameCache::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * The drug id of each name, keyed by the name as given; unknown names
+     * are left out. At most one call to drug-database-service.
+     */
+    public Map<String, Long> resolve(Collection<String> names) {
+        Map<String, Long> ids = new LinkedHashMap<>();
+        // cache key -> name sent to drug-database-service for it
+        Map<String, String> missing = new LinkedHashMap<>();
+        synchronized (this) {
+            for (String name : names) {
+                if (name == null) continue;
+                String key = key(name);
+                Entry entry = entries.get(key);
+                if (entry != null && entry.isExpired(ttlMillis)) {
+                    entries.remove(key);
+                    entry = null;
+                }
+                if (entry != null) {
+                    ids.put(name, entry.drugId);
+                } else {
+                    missing.putIfAbsent(key, name);
+                }
+            }
+        }
+        hits.increment(ids.size());
+        if (missing.isEmpty()) return ids;
+        misses.increment(missing.size());
+
+        Map<String, Long> resolved = drugClient.resolveNames(missing.values());
+        if (resolved == null) resolved = Collections.emptyMap();
+        synchronized (this) {
+            for (Map.Entry<String, String> miss : missing.entrySet()) {
+                Long drugId = resolved.get(miss.getValue());
+                if (drugId != null) entries.put(miss.getKey(), new Entry(drugId));
+            }
+        }
+        for (String name : names) {
+            if (name == null || ids.containsKey(name)) continue;
+            Long drugId = resolved.get(missing.get(key(name)));
+            if (drugId != null) ids.put(name, drugId);
+        }
+        return ids;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Entry {
+        private final Long drugId;
+        private final long loadedAt = System.currentTimeMillis();
+
+        private Entry(Long drugId) {
+            this.drugId = drugId;
+        }
+
+        private boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
+    }
+}
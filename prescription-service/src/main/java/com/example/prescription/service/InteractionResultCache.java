@@ -0,0 +1,149 @@
+package com.example.prescription.service;
+
+import com.example.prescription.dto.InteractionResultDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Recent interaction results keyed by the unordered drug pair, so common
+ * combinations are not re-analyzed on every create, update or validate.
+ * Entries are evicted least-recently-used once the cache is full and expire
+ * after a TTL, which also bounds how long a rules change in
+ * interaction-service takes to show. Fallback results are never stored.
+ *
+ * Results are held for (smaller id, larger id); callers look pairs up in
+ * that order and mirror the result themselves.
+ */
+@Component
+public class InteractionResultCache {
+
+    private final int maxSize;
+    private final long ttlMillis;
+
+    // access-ordered, guarded by "this"
+    private final LinkedHashMap<PairKey, Entry> entries;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Timer loadTimer;
+
+    public InteractionResultCache(MeterRegistry meterRegistry,
+                                  @Value("${prescription.interactions.cache.max-size:10000}") int maxSize,
+                                  @Value("${prescription.interactions.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PairKey, Entry> eldest) {
+                if (size() > InteractionResultCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        this.hits = Counter.builder("prescription.interaction.cache.requests").tag("result", "hit")
+                .description("Interaction result cache lookups").register(meterRegistry);
+        this.misses = Counter.builder("prescription.interaction.cache.requests").tag("result", "miss")
+                .description("Interaction result cache lookups").register(meterRegistry);
+        this.evictions = Counter.builder("prescription.interaction.cache.evictions")
+                .description("Entries evicted by size or TTL").register(meterRegistry);
+        this.loadTimer = Timer.builder("prescription.interaction.cache.load")
+                .description("Time to load a missing pair from interaction-service").register(meterRegistry);
+        Gauge.builder("prescription.interaction.cache.size", this, InteractionResultCache::size)
+                .register(meterRegistry);
+        Gauge.builder("prescription.interaction.cache.hit.ratio", this, InteractionResultCache::hitRatio)
+                .register(meterRegistry);
+    }
+
+    public InteractionResultDTO getIfPresent(Long idA, Long idB) {
+        if (idA == null || idB == null) return null;
+        PairKey key = new PairKey(idA, idB);
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && entry.isExpired(ttlMillis)) {
+                entries.remove(key);
+                evictions.increment();
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.result;
+    }
+
+    public void put(Long idA, Long idB, InteractionResultDTO result) {
+        if (idA == null || idB == null || result == null || result.isFallback()) return;
+        synchronized (this) {
+            entries.put(new PairKey(idA, idB), new Entry(result));
+        }
+    }
+
+    /**
+     * Times a call to interaction-service made for missing pairs, whose
+     * results are then stored with put.
+     */
+    public <T> T recordLoad(Supplier<T> loader) {
+        return loadTimer.record(loader);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private static final class PairKey {
+        private final long low;
+        private final long high;
+
+        private PairKey(long idA, long idB) {
+            this.low = Math.min(idA, idB);
+            this.high = Math.max(idA, idB);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PairKey)) return false;
+            PairKey other = (PairKey) o;
+            return low == other.low && high == other.high;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(low, high);
+        }
+    }
+
+    private static final class Entry {
+        private final InteractionResultDTO result;
+        private final long loadedAt = System.currentTimeMillis();
+
+        private Entry(InteractionResultDTO result) {
+            this.result = result;
+        }
+
+        private boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
+    }
+}
@@ -1,61 +1,191 @@
 package com.example.prescription.service;
 
-import com.example.prescription.client.DrugClient;
+import com.example.common.dto.PrescriptionRequestDTO;
+import com.example.common.exceptions.DrugNotFoundException;
 import com.example.prescription.client.InteractionClient;
-import com.example.prescription.dto.DrugDTO;
 import com.example.prescription.dto.InteractionResultDTO;
+import com.example.prescription.dto.PrescriptionInteractionDTO;
+import com.example.prescription.dto.RiskLevel;
 import com.example.prescription.entity.Prescription;
+import com.example.prescription.entity.PrescriptionInteraction;
 import com.example.prescription.entity.PrescriptionItem;
 import com.example.prescription.repository.PrescriptionRepository;
+import com.example.prescription.repository.PrescriptionSpecifications;
+import brave.Span;
+import brave.Tracer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.StringJoiner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 public class PrescriptionService {
 
+    private static final Logger log = LoggerFactory.getLogger(PrescriptionService.class);
+
+    private static final String NO_INTERACTIONS = "No interactions (less than 2 drugs).";
+
     private final PrescriptionRepository repo;
-    private final DrugClient drugClient;
+    private final DrugNameCache drugNames;
     private final InteractionClient interactionClient;
+    private final ExecutorService interactionExecutor;
+    private final InteractionResultCache resultCache;
+    private final boolean parallelMode;
+    private final long deadlineMs;
+
+    // prescription.interactions.analyze, by whether messages were requested
+    private final Timer analyzeTimer;
+    private final Timer analyzeWithMessagesTimer;
+    private final Map<RiskLevel, Counter> recorded = new EnumMap<>(RiskLevel.class);
+
+    private final Tracer tracer;
 
-    public PrescriptionService(PrescriptionRepository repo, DrugClient drugClient, InteractionClient interactionClient) {
+    public PrescriptionService(PrescriptionRepository repo, DrugNameCache drugNames, InteractionClient interactionClient,
+                               @Qualifier("interactionExecutor") ExecutorService interactionExecutor,
+                               InteractionResultCache resultCache,
+                               MeterRegistry meterRegistry,
+                               Tracer tracer,
+                               @Value("${prescription.interactions.mode:batch}") String mode,
+                               @Value("${prescription.interactions.deadline-ms:5000}") long deadlineMs) {
         this.repo = repo;
-        this.drugClient = drugClient;
+        this.drugNames = drugNames;
         this.interactionClient = interactionClient;
+        this.interactionExecutor = interactionExecutor;
+        this.resultCache = resultCache;
+        this.parallelMode = "parallel".equalsIgnoreCase(mode);
+        this.deadlineMs = deadlineMs;
+        this.tracer = tracer;
+
+        this.analyzeTimer = analyzeTimer(meterRegistry, "codes");
+        this.analyzeWithMessagesTimer = analyzeTimer(meterRegistry, "full");
+        for (RiskLevel risk : RiskLevel.values()) {
+            recorded.put(risk, Counter.builder("prescription.interactions.recorded").tag("risk", risk.name())
+                    .description("Drug pairs recorded on prescriptions, by risk level").register(meterRegistry));
+        }
+    }
+
+    private Timer analyzeTimer(MeterRegistry meterRegistry, String detail) {
+        return Timer.builder("prescription.interactions.analyze")
+                .tag("mode", parallelMode ? "parallel" : "batch")
+                .tag("detail", detail)
+                .description("Analysis of all drug pairs of a prescription, including cache lookups")
+                .register(meterRegistry);
     }
 
     @Transactional
     public Prescription createPrescription(Prescription p) {
-        // validate drugs & compute interaction summary
-        String summary = computeInteractionSummary(p.getItems());
-        p.setInteractionSummary(summary);
-        return repo.save(p);
+        // validate drugs & record the analyzed pairs
+        recordInteractions(p);
+        return save(p);
+    }
+
+    /**
+     * Creates a prescription from drug names, as the EHR sends them. All
+     * names are resolved in one lookup, then the drugs are analyzed once as
+     * a set and saved like any other prescription. Nothing is analyzed or
+     * saved if a name is unknown; the DrugNotFoundException lists them all.
+     */
+    @Transactional
+    public Prescription createPrescriptionByName(PrescriptionRequestDTO request) {
+        List<String> names = request.getDrugNames() == null ? Collections.emptyList() : request.getDrugNames();
+        Map<String, Long> drugIds = drugNames.resolve(names);
+        List<String> unknown = new ArrayList<>();
+        for (String name : names) {
+            if (!drugIds.containsKey(name)) unknown.add(name);
+        }
+        if (!unknown.isEmpty()) {
+            throw new DrugNotFoundException("Unknown drugs: " + String.join(", ", unknown));
+        }
+
+        Prescription p = new Prescription();
+        p.setPatientId(request.getPatientId());
+        for (String name : names) {
+            PrescriptionItem item = new PrescriptionItem();
+            item.setDrugId(drugIds.get(name));
+            p.getItems().add(item);
+        }
+        return createPrescription(p);
     }
 
     public String validateOnly(Prescription p) {
-        // Just compute summary without saving
-        return computeInteractionSummary(p.getItems());
+        // Just compute the full report without saving
+        List<Long> drugIds = drugIds(p.getItems());
+        if (drugIds.size() < 2) return NO_INTERACTIONS;
+        return describe(drugIds, analyze(drugIds, true));
     }
 
     public Prescription getById(Long id) {
         return repo.findById(id).orElse(null);
     }
 
-    public List<Prescription> getAll() {
-        return repo.findAll();
+    /**
+     * One page of prescriptions matching the filters (null = any), with items
+     * loaded: a page query, a count query and one entity-graph query for the
+     * page's items, however large the page.
+     */
+    @Transactional(readOnly = true)
+    public Page<Prescription> search(String patientName, String doctorName,
+                                     LocalDateTime createdFrom, LocalDateTime createdTo, Pageable pageable) {
+        Specification<Prescription> filter = Specification
+                .where(PrescriptionSpecifications.patientNameStartsWith(patientName))
+                .and(PrescriptionSpecifications.doctorNameStartsWith(doctorName))
+                .and(PrescriptionSpecifications.createdFrom(createdFrom))
+                .and(PrescriptionSpecifications.createdBefore(createdTo));
+        Page<Prescription> page = repo.findAll(filter, pageable);
+        if (page.isEmpty()) return page;
+
+        List<Long> ids = new ArrayList<>(page.getNumberOfElements());
+        for (Prescription p : page) {
+            ids.add(p.getId());
+        }
+        Map<Long, Prescription> loaded = new HashMap<>();
+        for (Prescription p : repo.findWithItemsByIdIn(ids)) {
+            loaded.put(p.getId(), p);
+        }
+        List<Prescription> content = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            content.add(loaded.get(id));
+        }
+        return new PageImpl<>(content, pageable, page.getTotalElements());
     }
 
     @Transactional
     public Prescription updatePrescription(Long id, Prescription updated) {
         Prescription existing = repo.findById(id).orElseThrow(() -> new RuntimeException("Prescription not found"));
         existing.setPatientName(updated.getPatientName());
+        // clients that don't know the EHR id keep it
+        if (updated.getPatientId() != null) existing.setPatientId(updated.getPatientId());
         existing.setDoctorName(updated.getDoctorName());
         existing.getItems().clear();
         existing.getItems().addAll(updated.getItems());
-        existing.setInteractionSummary(computeInteractionSummary(existing.getItems()));
-        return repo.save(existing);
+        recordInteractions(existing);
+        return save(existing);
     }
 
     public void deletePrescription(Long id) {
@@ -63,28 +193,378 @@ public class PrescriptionService {
     }
 
     /**
-     * For each pair of drugs among items, call interaction-service and build summary.
+     * The stored interactions of a prescription, or null if it does not exist.
+     * Messages are not stored; with full=true they are rendered again by
+     * interaction-service for this call only.
      */
-    private String computeInteractionSummary(List<PrescriptionItem> items) {
-        if (items == null || items.size() < 2) return "No interactions (less than 2 drugs).";
+    @Transactional(readOnly = true)
+    public List<PrescriptionInteractionDTO> getInteractions(Long id, boolean full) {
+        Prescription p = repo.findById(id).orElse(null);
+        if (p == null) return null;
 
-        StringJoiner sj = new StringJoiner("\n");
-        for (int i = 0; i < items.size(); i++) {
-            for (int j = i + 1; j < items.size(); j++) {
-                PrescriptionItem a = items.get(i);
-                PrescriptionItem b = items.get(j);
+        List<PrescriptionInteraction> interactions = p.getInteractions();
+        List<String> messages = full ? messages(drugIds(p.getItems()), interactions) : Collections.emptyList();
+
+        List<PrescriptionInteractionDTO> dtos = new ArrayList<>(interactions.size());
+        for (int k = 0; k < interactions.size(); k++) {
+            PrescriptionInteraction pi = interactions.get(k);
+            PrescriptionInteractionDTO dto = new PrescriptionInteractionDTO();
+            dto.setDrugAId(pi.getDrugAId());
+            dto.setDrugBId(pi.getDrugBId());
+            dto.setDrugA(pi.getDrugA());
+            dto.setDrugB(pi.getDrugB());
+            dto.setRiskLevel(pi.getRiskLevel());
+            dto.setSeverityScore(pi.getSeverityScore());
+            dto.setRuleCodes(pi.getRuleCodes() == null || pi.getRuleCodes().isEmpty()
+                    ? Collections.emptyList()
+                    : Arrays.asList(pi.getRuleCodes().split(",")));
+            dto.setMessage(k < messages.size() ? messages.get(k) : null);
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    /**
+     * Saves and flushes inside a "prescription.save" span, so the span covers
+     * the inserts of the prescription, its items and its interactions rather
+     * than only the parent row.
+     */
+    private Prescription save(Prescription p) {
+        Span span = tracer.nextSpan().name("prescription.save")
+                .tag("items", String.valueOf(p.getItems() == null ? 0 : p.getItems().size()))
+                .tag("interactions", String.valueOf(p.getInteractions().size()))
+                .start();
+        try (Tracer.SpanInScope ws = tracer.withSpanInScope(span)) {
+            return repo.saveAndFlush(p);
+        } catch (RuntimeException | Error ex) {
+            span.error(ex);
+            throw ex;
+        } finally {
+            span.finish();
+        }
+    }
+
+    /**
+     * Replaces the prescription's interactions with one row per pair of items
+     * (in item order) and sets the compact summary.
+     */
+    private void recordInteractions(Prescription p) {
+        List<Long> drugIds = drugIds(p.getItems());
+        p.getInteractions().clear();
+        if (drugIds.size() < 2) {
+            p.setInteractionSummary(NO_INTERACTIONS);
+            return;
+        }
+
+        InteractionResultDTO[][] results = analyze(drugIds, false);
+        for (int i = 0; i < drugIds.size(); i++) {
+            for (int j = i + 1; j < drugIds.size(); j++) {
+                InteractionResultDTO res = results[i][j];
+                PrescriptionInteraction pi = new PrescriptionInteraction();
+                pi.setDrugAId(drugIds.get(i));
+                pi.setDrugBId(drugIds.get(j));
+                pi.setDrugA(displayName(res.getDrugA(), drugIds.get(i)));
+                pi.setDrugB(displayName(res.getDrugB(), drugIds.get(j)));
+                pi.setRiskLevel(res.getRiskLevel());
+                if (res.getRiskLevel() != null) recorded.get(res.getRiskLevel()).increment();
+                pi.setSeverityScore(res.getSeverityScore());
+                pi.setRuleCodes(res.getRuleCodes() == null ? null : String.join(",", res.getRuleCodes()));
+                p.getInteractions().add(pi);
+            }
+        }
+        p.setInteractionSummary(summarize(p.getInteractions()));
+    }
+
+    /**
+     * e.g. "3 pairs checked: 1 HIGH, 2 SAFE. Highest risk: Aspirin <-> Warfarin (HIGH, score 75)."
+     */
+    static String summarize(List<PrescriptionInteraction> interactions) {
+        Map<RiskLevel, Integer> counts = new EnumMap<>(RiskLevel.class);
+        PrescriptionInteraction worst = null;
+        for (PrescriptionInteraction pi : interactions) {
+            if (pi.getRiskLevel() != null) {
+                counts.merge(pi.getRiskLevel(), 1, Integer::sum);
+            }
+            if (worst == null || pi.getSeverityScore() > worst.getSeverityScore()) {
+                worst = pi;
+            }
+        }
+
+        StringJoiner levels = new StringJoiner(", ");
+        RiskLevel[] all = RiskLevel.values();
+        for (int r = all.length - 1; r >= 0; r--) {
+            Integer count = counts.get(all[r]);
+            if (count != null) levels.add(count + " " + all[r]);
+        }
+        int n = interactions.size();
+        return n + (n == 1 ? " pair" : " pairs") + " checked: " + levels
+                + ". Highest risk: " + worst.getDrugA() + " <-> " + worst.getDrugB()
+                + " (" + worst.getRiskLevel() + ", score " + worst.getSeverityScore() + ").";
+    }
+
+    /**
+     * Messages for the stored interactions, which were recorded for every
+     * pair of items in order. Returns no messages if the two no longer line up.
+     */
+    private List<String> messages(List<Long> drugIds, List<PrescriptionInteraction> interactions) {
+        if (drugIds.size() < 2 || interactions.size() != drugIds.size() * (drugIds.size() - 1) / 2) {
+            return Collections.emptyList();
+        }
+        InteractionResultDTO[][] results = analyze(drugIds, true);
+        List<String> messages = new ArrayList<>(interactions.size());
+        for (int i = 0; i < drugIds.size(); i++) {
+            for (int j = i + 1; j < drugIds.size(); j++) {
+                messages.add(results[i][j].getMessage());
+            }
+        }
+        return messages;
+    }
+
+    private static List<Long> drugIds(List<PrescriptionItem> items) {
+        if (items == null) return Collections.emptyList();
+        List<Long> drugIds = new ArrayList<>(items.size());
+        for (PrescriptionItem item : items) {
+            drugIds.add(item.getDrugId());
+        }
+        return drugIds;
+    }
 
-                // Fetch names (best-effort)
-                DrugDTO da = drugClient.getDrug(a.getDrugId());
-                DrugDTO db = drugClient.getDrug(b.getDrugId());
+    /**
+     * Full report, one line per pair in item order.
+     */
+    private static String describe(List<Long> drugIds, InteractionResultDTO[][] results) {
+        StringJoiner sj = new StringJoiner("\n");
+        for (int i = 0; i < drugIds.size(); i++) {
+            for (int j = i + 1; j < drugIds.size(); j++) {
+                InteractionResultDTO res = results[i][j];
 
-                String nameA = da != null && da.getName() != null ? da.getName() : String.valueOf(a.getDrugId());
-                String nameB = db != null && db.getName() != null ? db.getName() : String.valueOf(b.getDrugId());
+                // Names come back with the analysis; fall back to the id (best-effort)
+                String nameA = displayName(res.getDrugA(), drugIds.get(i));
+                String nameB = displayName(res.getDrugB(), drugIds.get(j));
 
-                InteractionResultDTO res = interactionClient.analyze(a.getDrugId(), b.getDrugId());
                 sj.add(nameA + " <-> " + nameB + " => risk=" + res.getRiskLevel() + " score=" + res.getSeverityScore() + " message=" + res.getMessage());
             }
         }
         return sj.toString();
     }
+
+    /**
+     * Analyze all pairs of drugs; results[i][j] (i < j) is drugIds[i] vs
+     * drugIds[j]. The analysis runs as a single batch call to
+     * interaction-service or, with prescription.interactions.mode=parallel,
+     * as one call per distinct drug pair on the interaction executor. Either
+     * way it must finish within prescription.interactions.deadline-ms; pairs
+     * still outstanding at the deadline are reported as not checked.
+     *
+     * Messages are only requested (detail=full) when withMessages is set;
+     * the structured result is enough to record the interactions. Cached
+     * results without a message do not count as hits when one is needed.
+     *
+     * Runs in a "prescription.interactions.analyze" span; the calls to
+     * interaction-service are traced as its children.
+     */
+    private InteractionResultDTO[][] analyze(List<Long> drugIds, boolean withMessages) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        Span span = tracer.nextSpan().name("prescription.interactions.analyze")
+                .tag("mode", parallelMode ? "parallel" : "batch")
+                .tag("detail", withMessages ? "full" : "codes")
+                .tag("drugs", String.valueOf(drugIds.size()))
+                .start();
+        try (Tracer.SpanInScope ws = tracer.withSpanInScope(span)) {
+            return parallelMode
+                    ? analyzeParallel(drugIds, withMessages, deadline)
+                    : analyzeBatch(drugIds, withMessages, deadline);
+        } catch (RuntimeException | Error ex) {
+            span.error(ex);
+            throw ex;
+        } finally {
+            span.finish();
+            (withMessages ? analyzeWithMessagesTimer : analyzeTimer)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Pairs found in the result cache are answered locally; the items taking
+     * part in any missing pair go to interaction-service in one batch call.
+     */
+    private InteractionResultDTO[][] analyzeBatch(List<Long> drugIds, boolean withMessages, long deadline) {
+        int n = drugIds.size();
+        InteractionResultDTO[][] results = new InteractionResultDTO[n][n];
+        boolean[] needed = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                results[i][j] = cached(drugIds.get(i), drugIds.get(j), withMessages);
+                if (results[i][j] == null) {
+                    needed[i] = true;
+                    needed[j] = true;
+                }
+            }
+        }
+
+        // position in drugIds -> position in the batch request
+        int[] slot = new int[n];
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            slot[i] = needed[i] ? missing.size() : -1;
+            if (needed[i]) missing.add(drugIds.get(i));
+        }
+        if (missing.isEmpty()) return results;
+
+        Future<List<List<InteractionResultDTO>>> call = null;
+        try {
+            call = interactionExecutor.submit(() ->
+                    resultCache.recordLoad(() -> interactionClient.analyzeBatch(missing, detail(withMessages)).getResults()));
+            List<List<InteractionResultDTO>> batch = await(call, deadline);
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    if (results[i][j] == null) {
+                        results[i][j] = batch.get(slot[i]).get(slot[j]);
+                        cache(drugIds.get(i), drugIds.get(j), results[i][j]);
+                    }
+                }
+            }
+        } catch (Exception ex) {
+            if (call != null) call.cancel(true);
+            InteractionResultDTO unchecked = notChecked(ex);
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    if (results[i][j] == null) results[i][j] = unchecked;
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Each distinct pair of drug ids is analyzed once, however often the
+     * drugs repeat in the prescription, and only if the result cache does
+     * not have it. Calls are keyed by (smaller id, larger id), so a result
+     * is mirrored when the items list them the other way round.
+     */
+    private InteractionResultDTO[][] analyzeParallel(List<Long> drugIds, boolean withMessages, long deadline) {
+        int n = drugIds.size();
+        Map<List<Long>, InteractionResultDTO> answers = new LinkedHashMap<>();
+        Map<List<Long>, Future<InteractionResultDTO>> calls = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                List<Long> key = pairKey(drugIds.get(i), drugIds.get(j));
+                if (answers.containsKey(key) || calls.containsKey(key)) continue;
+
+                InteractionResultDTO cached = usable(resultCache.getIfPresent(key.get(0), key.get(1)), withMessages);
+                if (cached != null) {
+                    answers.put(key, cached);
+                } else {
+                    try {
+                        calls.put(key, interactionExecutor.submit(() ->
+                                resultCache.recordLoad(() -> interactionClient.analyze(key.get(0), key.get(1), detail(withMessages)))));
+                    } catch (RejectedExecutionException ex) {
+                        answers.put(key, notChecked(ex));
+                    }
+                }
+            }
+        }
+
+        for (Map.Entry<List<Long>, Future<InteractionResultDTO>> call : calls.entrySet()) {
+            InteractionResultDTO res;
+            try {
+                res = await(call.getValue(), deadline);
+                resultCache.put(call.getKey().get(0), call.getKey().get(1), res);
+            } catch (Exception ex) {
+                call.getValue().cancel(true);
+                res = notChecked(ex);
+            }
+            answers.put(call.getKey(), res);
+        }
+
+        InteractionResultDTO[][] results = new InteractionResultDTO[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                Long idA = drugIds.get(i);
+                Long idB = drugIds.get(j);
+                InteractionResultDTO res = answers.get(pairKey(idA, idB));
+                results[i][j] = isReversed(idA, idB) ? mirrored(res) : res;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Cached result for drugs idA vs idB in that order, or null. Also null
+     * if a message is needed and the cached result has none.
+     */
+    private InteractionResultDTO cached(Long idA, Long idB, boolean withMessages) {
+        List<Long> key = pairKey(idA, idB);
+        InteractionResultDTO res = usable(resultCache.getIfPresent(key.get(0), key.get(1)), withMessages);
+        return res != null && isReversed(idA, idB) ? mirrored(res) : res;
+    }
+
+    private static InteractionResultDTO usable(InteractionResultDTO cached, boolean withMessages) {
+        return cached == null || (withMessages && cached.getMessage() == null) ? null : cached;
+    }
+
+    private static String detail(boolean withMessages) {
+        return withMessages ? InteractionClient.DETAIL_FULL : null;
+    }
+
+    private void cache(Long idA, Long idB, InteractionResultDTO res) {
+        List<Long> key = pairKey(idA, idB);
+        resultCache.put(key.get(0), key.get(1), isReversed(idA, idB) ? mirrored(res) : res);
+    }
+
+    private static <T> T await(Future<T> call, long deadline) throws Exception {
+        try {
+            return call.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException ex) {
+            throw ex.getCause() instanceof Exception ? (Exception) ex.getCause() : ex;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw ex;
+        }
+    }
+
+    private static List<Long> pairKey(Long idA, Long idB) {
+        return isReversed(idA, idB) ? Arrays.asList(idB, idA) : Arrays.asList(idA, idB);
+    }
+
+    private static boolean isReversed(Long idA, Long idB) {
+        return idA != null && idB != null && idA > idB;
+    }
+
+    private static InteractionResultDTO mirrored(InteractionResultDTO res) {
+        InteractionResultDTO m = new InteractionResultDTO();
+        m.setDrugA(res.getDrugB());
+        m.setDrugB(res.getDrugA());
+        m.setRiskLevel(res.getRiskLevel());
+        m.setSeverityScore(res.getSeverityScore());
+        m.setMessage(res.getMessage());
+        m.setRuleCodes(res.getRuleCodes());
+        m.setFallback(res.isFallback());
+        return m;
+    }
+
+    private InteractionResultDTO notChecked(Exception ex) {
+        InteractionResultDTO r = new InteractionResultDTO();
+        r.setDrugA("UNKNOWN");
+        r.setDrugB("UNKNOWN");
+        r.setRiskLevel(RiskLevel.MODERATE);
+        r.setSeverityScore(10);
+        r.setFallback(true);
+        if (ex instanceof TimeoutException) {
+            log.warn("Interaction analysis exceeded the {} ms deadline", deadlineMs);
+            r.setMessage("Interaction analysis did not finish within " + deadlineMs + " ms.");
+        } else if (ex instanceof RejectedExecutionException) {
+            log.warn("Interaction executor is saturated, analysis not started");
+            r.setMessage("Interaction analysis not started: too many analyses in progress.");
+        } else {
+            log.warn("Interaction analysis failed: {}", ex.toString());
+            r.setMessage("Interaction service unavailable: " + ex.getMessage());
+        }
+        return r;
+    }
+
+    private static String displayName(String name, Long drugId) {
+        return name != null && !"UNKNOWN".equals(name) ? name : String.valueOf(drugId);
+    }
 }
@@ -0,0 +1,138 @@
+package com.example.prescription.client;
+
+import com.example.prescription.dto.InteractionResultDTO;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The Feign clients against a stub server: an open breaker and a full
+ * bulkhead both answer from the client's fallback without reaching the
+ * service. Each test uses its own client, so their breakers don't interfere.
+ */
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "prescription.resilience.max-concurrent-calls=1",
+        "prescription.resilience.queue-capacity=1",
+        "prescription.resilience.time-limit-ms=10000"
+})
+public class ClientFallbackTest {
+
+    private static final AtomicInteger drugRequests = new AtomicInteger();
+    private static final AtomicInteger analyzeRequests = new AtomicInteger();
+    private static final CountDownLatch releaseAnalyze = new CountDownLatch(1);
+    private static final HttpServer server = startServer();
+
+    @Autowired
+    private DrugClient drugClient;
+
+    @Autowired
+    private InteractionClient interactionClient;
+
+    private static HttpServer startServer() {
+        try {
+            HttpServer s = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            s.createContext("/drugs", exchange -> {
+                drugRequests.incrementAndGet();
+                respond(exchange, 500, "{}");
+            });
+            s.createContext("/interactions/analyze", exchange -> {
+                analyzeRequests.incrementAndGet();
+                try {
+                    releaseAnalyze.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                respond(exchange, 200, "{\"drugA\":\"Aspirin\",\"drugB\":\"Warfarin\",\"riskLevel\":\"HIGH\",\"severityScore\":80}");
+            });
+            s.setExecutor(Executors.newCachedThreadPool());
+            s.start();
+            return s;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @DynamicPropertySource
+    static void serviceUrls(DynamicPropertyRegistry registry) {
+        String url = "http://localhost:" + server.getAddress().getPort();
+        registry.add("drug.service.url", () -> url);
+        registry.add("interaction.service.url", () -> url);
+    }
+
+    @AfterAll
+    static void stopServer() {
+        releaseAnalyze.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    public void testOpenBreakerAnswersFromTheFallbackWithoutCallingTheService() {
+        // minimum-number-of-calls failures at a 100% failure rate open the breaker
+        for (int i = 0; i < 10; i++) {
+            assertThat(drugClient.getDrug(1L).getName()).isEqualTo("UNKNOWN");
+        }
+        assertThat(drugRequests.get()).isEqualTo(10);
+
+        assertThat(drugClient.getDrug(1L).getName()).isEqualTo("UNKNOWN");
+        assertThat(drugRequests.get()).isEqualTo(10);
+    }
+
+    @Test
+    public void testFullBulkheadAnswersFromTheFallback() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<InteractionResultDTO> running = callers.submit(() -> interactionClient.analyze(1L, 2L, null));
+            long waitUntil = System.currentTimeMillis() + 5000;
+            while (analyzeRequests.get() == 0 && System.currentTimeMillis() < waitUntil) {
+                Thread.sleep(10);
+            }
+            assertThat(analyzeRequests.get()).isEqualTo(1);
+            Future<InteractionResultDTO> queued = callers.submit(() -> interactionClient.analyze(3L, 4L, null));
+            // time for the second call to take the only queue slot
+            Thread.sleep(200);
+
+            long start = System.currentTimeMillis();
+            InteractionResultDTO rejected = interactionClient.analyze(5L, 6L, null);
+
+            assertThat(System.currentTimeMillis() - start).isLessThan(1000);
+            assertThat(rejected.isFallback()).isTrue();
+            assertThat(analyzeRequests.get()).isEqualTo(1);
+
+            releaseAnalyze.countDown();
+            assertThat(running.get(5, TimeUnit.SECONDS).isFallback()).isFalse();
+            assertThat(queued.get(5, TimeUnit.SECONDS).isFallback()).isFalse();
+            assertThat(analyzeRequests.get()).isEqualTo(2);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+}
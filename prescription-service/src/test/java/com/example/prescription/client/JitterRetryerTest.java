@@ -0,0 +1,74 @@
+package com.example.prescription.client;
+
+import feign.Request;
+import feign.RetryableException;
+import feign.Retryer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JitterRetryerTest {
+
+    private static RetryableException unavailable(Request.HttpMethod method) {
+        Request request = Request.create(method, "http://interaction-service/interactions/analyze",
+                Collections.emptyMap(), null, StandardCharsets.UTF_8, null);
+        return new RetryableException(503, "HTTP 503", method, (Date) null, request);
+    }
+
+    @Test
+    public void testPostsAreNotRetried() {
+        JitterRetryer retryer = new JitterRetryer(3, 1, 2);
+        RetryableException e = unavailable(Request.HttpMethod.POST);
+
+        assertThatThrownBy(() -> retryer.continueOrPropagate(e)).isSameAs(e);
+    }
+
+    @Test
+    public void testGetsAreRetriedUpToTheAttemptCap() {
+        JitterRetryer retryer = new JitterRetryer(3, 1, 2);
+        RetryableException e = unavailable(Request.HttpMethod.GET);
+
+        // attempts 2 and 3 are allowed, a fourth is not
+        assertThatCode(() -> retryer.continueOrPropagate(e)).doesNotThrowAnyException();
+        assertThatCode(() -> retryer.continueOrPropagate(e)).doesNotThrowAnyException();
+        assertThatThrownBy(() -> retryer.continueOrPropagate(e)).isSameAs(e);
+    }
+
+    @Test
+    public void testCloneStartsFromTheFirstAttempt() {
+        JitterRetryer retryer = new JitterRetryer(2, 1, 2);
+        RetryableException e = unavailable(Request.HttpMethod.GET);
+        retryer.continueOrPropagate(e);
+        assertThatThrownBy(() -> retryer.continueOrPropagate(e)).isSameAs(e);
+
+        Retryer fresh = retryer.clone();
+        assertThatCode(() -> fresh.continueOrPropagate(e)).doesNotThrowAnyException();
+    }
+
+    @Test
+    public void testBackoffStaysAtOrBelowTheCeiling() {
+        JitterRetryer retryer = new JitterRetryer(100, 10, 80);
+
+        for (int attempt = 1; attempt < 100; attempt++) {
+            long ceiling = Math.min(80, 10L << Math.min(attempt - 1, 30));
+            assertThat(retryer.nextBackoffMs()).isBetween(0L, ceiling);
+        }
+    }
+
+    @Test
+    public void testBackoffIsJittered() {
+        JitterRetryer retryer = new JitterRetryer(1000, 1000, 1000);
+        long first = retryer.nextBackoffMs();
+        boolean varied = false;
+        for (int i = 0; i < 100 && !varied; i++) {
+            varied = retryer.nextBackoffMs() != first;
+        }
+        assertThat(varied).isTrue();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.prescription.config;
+
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import feign.RetryableException;
+import feign.codec.ErrorDecoder;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FeignResilienceConfigTest {
+
+    private final ErrorDecoder decoder = new FeignResilienceConfig().feignErrorDecoder();
+
+    private static Response response(Request.HttpMethod method, int status) {
+        Request request = Request.create(method, "http://interaction-service/interactions/analyze",
+                Collections.emptyMap(), null, StandardCharsets.UTF_8, null);
+        return Response.builder()
+                .status(status)
+                .reason("error")
+                .request(request)
+                .headers(Collections.emptyMap())
+                .body("error", StandardCharsets.UTF_8)
+                .build();
+    }
+
+    @Test
+    public void testGatewayErrorsOnGetsAreRetryable() {
+        for (int status : new int[] {502, 503, 504}) {
+            Exception e = decoder.decode("InteractionClient#analyze", response(Request.HttpMethod.GET, status));
+
+            assertThat(e).isInstanceOf(RetryableException.class);
+            assertThat(((RetryableException) e).status()).isEqualTo(status);
+            assertThat(((RetryableException) e).method()).isEqualTo(Request.HttpMethod.GET);
+        }
+    }
+
+    @Test
+    public void testGatewayErrorsOnPostsAreNotRetryable() {
+        for (int status : new int[] {502, 503, 504}) {
+            Exception e = decoder.decode("InteractionClient#analyzeBatch", response(Request.HttpMethod.POST, status));
+
+            assertThat(e).isInstanceOf(FeignException.class).isNotInstanceOf(RetryableException.class);
+            assertThat(((FeignException) e).status()).isEqualTo(status);
+        }
+    }
+
+    @Test
+    public void testOtherErrorsOnGetsAreNotRetryable() {
+        for (int status : new int[] {400, 404, 500}) {
+            Exception e = decoder.decode("InteractionClient#analyze", response(Request.HttpMethod.GET, status));
+
+            assertThat(e).isInstanceOf(FeignException.class).isNotInstanceOf(RetryableException.class);
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.example.prescription.service;
+
+import com.example.common.dto.PrescriptionRequestDTO;
+import com.example.common.exceptions.DrugNotFoundException;
+import com.example.common.exceptions.DrugServiceUnavailableException;
+import com.example.prescription.client.DrugClient;
+import com.example.prescription.client.DrugClientFallback;
+import com.example.prescription.client.InteractionClient;
+import com.example.prescription.dto.BatchInteractionResultDTO;
+import com.example.prescription.dto.InteractionResultDTO;
+import com.example.prescription.dto.RiskLevel;
+import com.example.prescription.entity.Prescription;
+import com.example.prescription.entity.PrescriptionInteraction;
+import com.example.prescription.entity.PrescriptionItem;
+import com.example.prescription.repository.PrescriptionRepository;
+import brave.ScopedSpan;
+import brave.Tracing;
+import brave.handler.MutableSpan;
+import brave.test.TestSpanHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+public class PrescriptionServiceTest {
+
+    private final PrescriptionRepository repo = Mockito.mock(PrescriptionRepository.class);
+    private final InteractionClient interactionClient = Mockito.mock(InteractionClient.class);
+    private final TestSpanHandler spans = new TestSpanHandler();
+    private final Tracing tracing = Tracing.newBuilder().addSpanHandler(spans).build();
+    private final ExecutorService executor = tracing.currentTraceContext().executorService(Executors.newFixedThreadPool(4));
+    private final InteractionResultCache resultCache = new InteractionResultCache(new SimpleMeterRegistry(), 100, 600);
+    private final DrugClient drugClient = Mockito.mock(DrugClient.class);
+    private final DrugNameCache drugNames = new DrugNameCache(drugClient, new SimpleMeterRegistry(), 100, 600);
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+        tracing.close();
+    }
+
+    @Test
+    public void testParallelModeDedupsPairsAndKeepsItemOrder() {
+        Mockito.when(interactionClient.analyze(anyLong(), anyLong(), any())).thenAnswer(inv ->
+                result("Drug" + inv.getArgument(0), "Drug" + inv.getArgument(1)));
+
+        String summary = service("parallel", 5000).validateOnly(prescription(3L, 1L, 3L));
+
+        assertThat(summary.split("\n")).containsExactly(
+                "Drug3 <-> Drug1 => risk=SAFE score=0 message=ok",
+                "Drug3 <-> Drug3 => risk=SAFE score=0 message=ok",
+                "Drug1 <-> Drug3 => risk=SAFE score=0 message=ok");
+        Mockito.verify(interactionClient, Mockito.times(1)).analyze(1L, 3L, "full");
+        Mockito.verify(interactionClient, Mockito.times(1)).analyze(3L, 3L, "full");
+    }
+
+    @Test
+    public void testParallelModeReportsPairsPastTheDeadline() {
+        Mockito.when(interactionClient.analyze(1L, 2L, "full")).thenReturn(result("Drug1", "Drug2"));
+        Mockito.when(interactionClient.analyze(1L, 3L, "full")).thenAnswer(inv -> {
+            Thread.sleep(2000);
+            return result("Drug1", "Drug3");
+        });
+        Mockito.when(interactionClient.analyze(2L, 3L, "full")).thenReturn(result("Drug2", "Drug3"));
+
+        String[] lines = service("parallel", 200).validateOnly(prescription(1L, 2L, 3L)).split("\n");
+
+        assertThat(lines[0]).isEqualTo("Drug1 <-> Drug2 => risk=SAFE score=0 message=ok");
+        assertThat(lines[1]).startsWith("1 <-> 3 => risk=MODERATE").contains("did not finish within 200 ms");
+        assertThat(lines[2]).isEqualTo("Drug2 <-> Drug3 => risk=SAFE score=0 message=ok");
+    }
+
+    @Test
+    public void testBatchModeCancelsTheCallPastTheDeadline() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        Mockito.when(interactionClient.analyzeBatch(any(), any())).thenAnswer(inv -> {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException ex) {
+                interrupted.countDown();
+                throw ex;
+            }
+            return batch(inv.getArgument(0));
+        });
+
+        String[] lines = service("batch", 200).validateOnly(prescription(1L, 2L)).split("\n");
+
+        assertThat(lines[0]).startsWith("1 <-> 2 => risk=MODERATE").contains("did not finish within 200 ms");
+        assertThat(interrupted.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void testCreateStoresStructuredInteractionsAndCompactSummary() {
+        InteractionResultDTO high = result("Aspirin", "Warfarin");
+        high.setRiskLevel(RiskLevel.HIGH);
+        high.setSeverityScore(75);
+        high.setRuleCodes(Arrays.asList("SIDE_EFFECT_OVERLAP_SINGLE", "COMBINED_DOSAGE_HIGH"));
+        Mockito.when(interactionClient.analyze(1L, 2L, null)).thenReturn(high);
+        Mockito.when(interactionClient.analyze(1L, 3L, null)).thenReturn(result("Aspirin", "Cetirizine"));
+        Mockito.when(interactionClient.analyze(2L, 3L, null)).thenReturn(result("Warfarin", "Cetirizine"));
+        Mockito.when(repo.saveAndFlush(any(Prescription.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        Prescription saved = service("parallel", 5000).createPrescription(prescription(1L, 2L, 3L));
+
+        assertThat(saved.getInteractionSummary())
+                .isEqualTo("3 pairs checked: 1 HIGH, 2 SAFE. Highest risk: Aspirin <-> Warfarin (HIGH, score 75).");
+        assertThat(saved.getInteractions()).hasSize(3);
+        PrescriptionInteraction first = saved.getInteractions().get(0);
+        assertThat(first.getDrugAId()).isEqualTo(1L);
+        assertThat(first.getDrugBId()).isEqualTo(2L);
+        assertThat(first.getRuleCodes()).isEqualTo("SIDE_EFFECT_OVERLAP_SINGLE,COMBINED_DOSAGE_HIGH");
+    }
+
+    @Test
+    public void testCreateByNameResolvesAllNamesInOneCall() {
+        Mockito.when(drugClient.resolveNames(any())).thenReturn(Map.of("Aspirin", 1L, "warfarin", 2L, "Cetirizine", 3L));
+        Mockito.when(interactionClient.analyzeBatch(any(), any())).thenAnswer(inv -> batch(inv.getArgument(0)));
+        Mockito.when(repo.saveAndFlush(any(Prescription.class))).thenAnswer(inv -> inv.getArgument(0));
+        PrescriptionService service = service("batch", 5000);
+
+        Prescription saved = service.createPrescriptionByName(request("P-1042", "Aspirin", "warfarin", "Cetirizine"));
+
+        assertThat(saved.getPatientId()).isEqualTo("P-1042");
+        assertThat(saved.getPatientName()).isNull();
+        assertThat(saved.getItems()).extracting(PrescriptionItem::getDrugId).containsExactly(1L, 2L, 3L);
+        assertThat(saved.getInteractions()).hasSize(3);
+        Mockito.verify(drugClient, Mockito.times(1)).resolveNames(any());
+        Mockito.verify(interactionClient, Mockito.times(1)).analyzeBatch(any(), any());
+
+        // known names, in any case, are not resolved again
+        service.createPrescriptionByName(request("P-1042", "ASPIRIN", "Warfarin "));
+        Mockito.verify(drugClient, Mockito.times(1)).resolveNames(any());
+    }
+
+    @Test
+    public void testCreateByNameReportsEveryUnknownName() {
+        Mockito.when(drugClient.resolveNames(any())).thenReturn(Map.of("Aspirin", 1L));
+
+        assertThatThrownBy(() -> service("batch", 5000)
+                .createPrescriptionByName(request("P-1042", "Aspirin", "Unobtainium", "Placebonol")))
+                .isInstanceOf(DrugNotFoundException.class)
+                .hasMessage("Unknown drugs: Unobtainium, Placebonol");
+        Mockito.verifyNoInteractions(interactionClient, repo);
+    }
+
+    @Test
+    public void testCreateByNameFailsAsUnavailableWhenNamesCannotBeResolved() {
+        Mockito.when(drugClient.resolveNames(any())).thenAnswer(inv ->
+                new DrugClientFallback().resolveNames(inv.getArgument(0)));
+
+        assertThatThrownBy(() -> service("batch", 5000)
+                .createPrescriptionByName(request("P-1042", "Aspirin", "Warfarin")))
+                .isInstanceOf(DrugServiceUnavailableException.class);
+        Mockito.verifyNoInteractions(interactionClient, repo);
+    }
+
+    @Test
+    public void testBatchModeMatchesParallelMode() {
+        Mockito.when(interactionClient.analyze(anyLong(), anyLong(), any())).thenAnswer(inv ->
+                scored(inv.getArgument(0), inv.getArgument(1)));
+        Mockito.when(interactionClient.analyzeBatch(any(), any())).thenAnswer(inv -> batch(inv.getArgument(0)));
+        Prescription p = prescription(3L, 1L, 4L, 2L);
+
+        String parallel = service("parallel", 5000, new InteractionResultCache(new SimpleMeterRegistry(), 100, 600))
+                .validateOnly(p);
+        String batch = service("batch", 5000, new InteractionResultCache(new SimpleMeterRegistry(), 100, 600))
+                .validateOnly(p);
+
+        assertThat(batch).isEqualTo(parallel);
+        assertThat(batch.split("\n")).hasSize(6)
+                .startsWith("Drug3 <-> Drug1 => risk=SAFE score=13 message=ok");
+    }
+
+    @Test
+    public void testSaturatedPoolStillHoldsTheDeadline() {
+        Mockito.when(interactionClient.analyze(anyLong(), anyLong(), any())).thenAnswer(inv -> {
+            Thread.sleep(2000);
+            return result("Drug" + inv.getArgument(0), "Drug" + inv.getArgument(1));
+        });
+        // one call running, one queued, the third is rejected
+        ExecutorService saturated = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.AbortPolicy());
+        try {
+            PrescriptionService svc = new PrescriptionService(repo, drugNames, interactionClient, saturated,
+                    resultCache, new SimpleMeterRegistry(), tracing.tracer(), "parallel", 200);
+
+            long start = System.nanoTime();
+            String[] lines = svc.validateOnly(prescription(1L, 2L, 3L)).split("\n");
+
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+            assertThat(lines[0]).contains("did not finish within 200 ms");
+            assertThat(lines[1]).contains("did not finish within 200 ms");
+            assertThat(lines[2]).startsWith("2 <-> 3 => risk=MODERATE").contains("not started");
+        } finally {
+            saturated.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCachedPairsAreNotAnalyzedAgain() {
+        Mockito.when(interactionClient.analyze(1L, 2L, "full")).thenReturn(result("Drug1", "Drug2"));
+        InteractionResultDTO unavailable = result("UNKNOWN", "UNKNOWN");
+        unavailable.setFallback(true);
+        Mockito.when(interactionClient.analyze(2L, 3L, "full")).thenReturn(unavailable);
+
+        PrescriptionService svc = service("parallel", 5000);
+        svc.validateOnly(prescription(1L, 2L));
+        svc.validateOnly(prescription(2L, 1L));
+        svc.validateOnly(prescription(2L, 3L));
+        String summary = svc.validateOnly(prescription(2L, 3L));
+
+        Mockito.verify(interactionClient, Mockito.times(1)).analyze(1L, 2L, "full");
+        Mockito.verify(interactionClient, Mockito.times(2)).analyze(2L, 3L, "full");
+        assertThat(summary).startsWith("2 <-> 3");
+        assertThat(resultCache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testBatchModeOnlySendsItemsOfUncachedPairs() {
+        resultCache.put(1L, 2L, result("Drug1", "Drug2"));
+        resultCache.put(2L, 3L, result("Drug2", "Drug3"));
+        BatchInteractionResultDTO batch = new BatchInteractionResultDTO();
+        batch.setResults(Arrays.asList(
+                Arrays.asList(null, result("Drug3", "Drug1")),
+                Arrays.asList(result("Drug1", "Drug3"), null)));
+        Mockito.when(interactionClient.analyzeBatch(Arrays.asList(3L, 1L), "full")).thenReturn(batch);
+
+        String[] lines = service("batch", 5000).validateOnly(prescription(2L, 3L, 1L)).split("\n");
+
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).startsWith("Drug2 <-> Drug3");
+        assertThat(lines[1]).startsWith("Drug2 <-> Drug1");
+        assertThat(lines[2]).startsWith("Drug3 <-> Drug1");
+        assertThat(resultCache.getIfPresent(1L, 3L).getDrugA()).isEqualTo("Drug1");
+    }
+
+    @Test
+    public void testMessagesAreOnlyRequestedWhenNeeded() {
+        InteractionResultDTO codesOnly = result("Drug1", "Drug2");
+        codesOnly.setMessage(null);
+        Mockito.when(interactionClient.analyze(1L, 2L, null)).thenReturn(codesOnly);
+        Mockito.when(interactionClient.analyze(1L, 2L, "full")).thenReturn(result("Drug1", "Drug2"));
+        Mockito.when(repo.saveAndFlush(any(Prescription.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        PrescriptionService svc = service("parallel", 5000);
+        svc.createPrescription(prescription(1L, 2L));
+        String summary = svc.validateOnly(prescription(1L, 2L));
+        svc.createPrescription(prescription(2L, 1L));
+
+        assertThat(summary).isEqualTo("Drug1 <-> Drug2 => risk=SAFE score=0 message=ok");
+        Mockito.verify(interactionClient, Mockito.times(1)).analyze(1L, 2L, null);
+        Mockito.verify(interactionClient, Mockito.times(1)).analyze(1L, 2L, "full");
+    }
+
+    @Test
+    public void testCreateIsTracedCallByCall() {
+        // stands in for the Feign client span, which Sleuth adds around the real call
+        Mockito.when(interactionClient.analyze(anyLong(), anyLong(), any())).thenAnswer(inv -> {
+            tracing.tracer().startScopedSpan("interaction-client").finish();
+            return result("Drug" + inv.getArgument(0), "Drug" + inv.getArgument(1));
+        });
+        Mockito.when(repo.saveAndFlush(any(Prescription.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        ScopedSpan request = tracing.tracer().startScopedSpan("post /prescriptions");
+        try {
+            service("parallel", 5000).createPrescription(prescription(1L, 2L, 3L));
+        } finally {
+            request.finish();
+        }
+
+        MutableSpan root = span("post /prescriptions");
+        MutableSpan analyze = span("prescription.interactions.analyze");
+        MutableSpan save = span("prescription.save");
+        assertThat(analyze.parentId()).isEqualTo(root.id());
+        assertThat(analyze.tags()).containsEntry("mode", "parallel").containsEntry("detail", "codes");
+        assertThat(save.parentId()).isEqualTo(root.id());
+        assertThat(save.tags()).containsEntry("interactions", "3");
+        assertThat(spans.spans()).filteredOn(s -> s.name().equals("interaction-client"))
+                .hasSize(3)
+                .allSatisfy(call -> {
+                    assertThat(call.traceId()).isEqualTo(root.traceId());
+                    assertThat(call.parentId()).isEqualTo(analyze.id());
+                });
+    }
+
+    private MutableSpan span(String name) {
+        return spans.spans().stream().filter(s -> s.name().equals(name)).findFirst()
+                .orElseThrow(() -> new AssertionError("No span " + name + " in " + spans.spans()));
+    }
+
+    private PrescriptionService service(String mode, long deadlineMs) {
+        return service(mode, deadlineMs, resultCache);
+    }
+
+    private PrescriptionService service(String mode, long deadlineMs, InteractionResultCache cache) {
+        return new PrescriptionService(repo, drugNames, interactionClient, executor,
+                cache, new SimpleMeterRegistry(), tracing.tracer(), mode, deadlineMs);
+    }
+
+    private static Prescription prescription(Long... drugIds) {
+        List<PrescriptionItem> items = new ArrayList<>();
+        for (Long drugId : drugIds) {
+            PrescriptionItem item = new PrescriptionItem();
+            item.setDrugId(drugId);
+            items.add(item);
+        }
+        Prescription p = new Prescription();
+        p.setItems(items);
+        return p;
+    }
+
+    private static PrescriptionRequestDTO request(String patientId, String... drugNames) {
+        PrescriptionRequestDTO request = new PrescriptionRequestDTO();
+        request.setPatientId(patientId);
+        request.setDrugNames(Arrays.asList(drugNames));
+        return request;
+    }
+
+    private static BatchInteractionResultDTO batch(List<Long> drugIds) {
+        List<List<InteractionResultDTO>> results = new ArrayList<>();
+        for (Long a : drugIds) {
+            List<InteractionResultDTO> row = new ArrayList<>();
+            for (Long b : drugIds) {
+                row.add(a.equals(b) ? null : scored(a, b));
+            }
+            results.add(row);
+        }
+        BatchInteractionResultDTO batch = new BatchInteractionResultDTO();
+        batch.setDrugIds(drugIds);
+        batch.setResults(results);
+        return batch;
+    }
+
+    // score depends on the pair, not on the order the drugs are given in
+    private static InteractionResultDTO scored(Long a, Long b) {
+        InteractionResultDTO r = result("Drug" + a, "Drug" + b);
+        r.setSeverityScore((int) (Math.min(a, b) * 10 + Math.max(a, b)));
+        return r;
+    }
+
+    private static InteractionResultDTO result(String drugA, String drugB) {
+        InteractionResultDTO r = new InteractionResultDTO();
+        r.setDrugA(drugA);
+        r.setDrugB(drugB);
+        r.setRiskLevel(RiskLevel.SAFE);
+        r.setSeverityScore(0);
+        r.setMessage("ok");
+        return r;
+    }
+}